@@ -0,0 +1,118 @@
+package com.bus.routing.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Thin JSON wrapper around java.net.http.HttpClient
+public class ApiClient implements AutoCloseable {
+
+    // Set by the app's SqlStatementCountFilter when it runs with the "loadtest" profile
+    static final String SQL_HEADER = "X-Sql-Statements";
+
+    private final ExecutorService executor;
+    private final HttpClient http;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final String baseUrl;
+
+    public ApiClient(String baseUrl, int maxConcurrency) {
+        this.baseUrl = baseUrl;
+        this.executor = Executors.newFixedThreadPool(Math.max(4, maxConcurrency));
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(executor)
+                .build();
+    }
+
+    public static class Result {
+        public final int status;
+        public final JsonNode body;
+        public final int sqlStatements; // -1 when the server does not report it
+
+        Result(int status, JsonNode body, int sqlStatements) {
+            this.status = status;
+            this.body = body;
+            this.sqlStatements = sqlStatements;
+        }
+
+        public boolean ok() {
+            return status >= 200 && status < 300;
+        }
+    }
+
+    public Result get(String path) {
+        return send(build(path).GET().build());
+    }
+
+    public Result post(String path, Object body) {
+        return send(build(path).POST(json(body)).build());
+    }
+
+    public Result patch(String path, Object body) {
+        return send(build(path).method("PATCH", json(body)).build());
+    }
+
+    public Result delete(String path) {
+        return send(build(path).DELETE().build());
+    }
+
+    public CompletableFuture<Result> patchAsync(String path, Object body) {
+        return http.sendAsync(build(path).method("PATCH", json(body)).build(), HttpResponse.BodyHandlers.ofString())
+                .thenApply(this::toResult);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private HttpRequest.Builder build(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json");
+    }
+
+    private HttpRequest.BodyPublisher json(Object body) {
+        try {
+            return HttpRequest.BodyPublishers.ofString(body == null ? "" : mapper.writeValueAsString(body));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not serialize request body", e);
+        }
+    }
+
+    private Result send(HttpRequest req) {
+        try {
+            return toResult(http.send(req, HttpResponse.BodyHandlers.ofString()));
+        } catch (IOException e) {
+            throw new IllegalStateException("Request failed: " + req.method() + " " + req.uri(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted: " + req.method() + " " + req.uri(), e);
+        }
+    }
+
+    private Result toResult(HttpResponse<String> res) {
+        JsonNode body = null;
+        String text = res.body();
+        if (text != null && !text.isBlank()) {
+            try {
+                body = mapper.readTree(text);
+            } catch (IOException e) {
+                body = null; // non-JSON body (e.g. plain text or an error page)
+            }
+        }
+        int sql = res.headers().firstValue(SQL_HEADER).map(Integer::parseInt).orElse(-1);
+        return new Result(res.statusCode(), body, sql);
+    }
+}
@@ -0,0 +1,126 @@
+package com.bus.routing.loadtest;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+// Builds a synthetic city through the public API: N stops scattered around a center and M routes through them
+public class CitySeeder {
+
+    // How many random candidates are looked at when picking a route's next stop
+    private static final int NEXT_STOP_CANDIDATES = 8;
+
+    public static class SeededRoute {
+        public final long routeId;
+        public final List<Long> routeStopIds; // in stop order
+
+        SeededRoute(long routeId, List<Long> routeStopIds) {
+            this.routeId = routeId;
+            this.routeStopIds = routeStopIds;
+        }
+    }
+
+    private final ApiClient api;
+    private final LoadTestConfig config;
+    private final Random random;
+
+    public CitySeeder(ApiClient api, LoadTestConfig config) {
+        this.api = api;
+        this.config = config;
+        this.random = new Random(config.seed);
+    }
+
+    public List<SeededRoute> seed() {
+        List<double[]> coords = new ArrayList<>();
+        List<Long> stopIds = new ArrayList<>();
+
+        for (int i = 0; i < config.stops; i++) {
+            double lat = config.centerLat + (random.nextDouble() * 2 - 1) * config.spreadDeg;
+            double lon = config.centerLon + (random.nextDouble() * 2 - 1) * config.spreadDeg;
+
+            Map<String, Object> body = new HashMap<>();
+            body.put("name", "LT Stop " + (i + 1));
+            body.put("latitude", lat);
+            body.put("longitude", lon);
+
+            ApiClient.Result res = expectOk(api.post("/stops", body), "create stop");
+            stopIds.add(res.body.get("id").asLong());
+            coords.add(new double[] { lat, lon });
+        }
+
+        List<SeededRoute> routes = new ArrayList<>();
+        for (int r = 0; r < config.routes; r++) {
+            Map<String, Object> routeBody = new HashMap<>();
+            routeBody.put("routeNumber", "LT-" + (r + 1));
+            long routeId = expectOk(api.post("/routes", routeBody), "create route").body.get("id").asLong();
+
+            List<Long> routeStopIds = new ArrayList<>();
+            List<Integer> path = pickPath(coords);
+            for (int i = 0; i < path.size(); i++) {
+                Map<String, Object> rsBody = new HashMap<>();
+                rsBody.put("routeId", routeId);
+                rsBody.put("stopId", stopIds.get(path.get(i)));
+                rsBody.put("stopOrder", i + 1);
+                rsBody.put("pickupTime", pickupTime(i));
+
+                ApiClient.Result res = expectOk(api.post("/route-stops", rsBody), "add stop to route");
+                routeStopIds.add(res.body.get("id").asLong());
+            }
+            routes.add(new SeededRoute(routeId, routeStopIds));
+        }
+        return routes;
+    }
+
+    // Greedy walk: from a random start, hop to the closest of a few random unused stops.
+    // Gives routes that look roughly like real ones without being perfectly ordered.
+    private List<Integer> pickPath(List<double[]> coords) {
+        Set<Integer> used = new HashSet<>();
+        List<Integer> path = new ArrayList<>();
+
+        int current = random.nextInt(coords.size());
+        used.add(current);
+        path.add(current);
+
+        while (path.size() < config.stopsPerRoute) {
+            int best = -1;
+            double bestDist = Double.MAX_VALUE;
+            for (int c = 0; c < NEXT_STOP_CANDIDATES; c++) {
+                int candidate = random.nextInt(coords.size());
+                if (used.contains(candidate)) continue;
+                double d = dist(coords.get(current), coords.get(candidate));
+                if (d < bestDist) {
+                    bestDist = d;
+                    best = candidate;
+                }
+            }
+            if (best < 0) continue; // all candidates already on the route, draw again
+
+            used.add(best);
+            path.add(best);
+            current = best;
+        }
+        return path;
+    }
+
+    private static String pickupTime(int index) {
+        int minutes = 7 * 60 + index * 2;
+        return String.format("%02d:%02d", (minutes / 60) % 24, minutes % 60);
+    }
+
+    private static double dist(double[] a, double[] b) {
+        double dx = a[0] - b[0];
+        double dy = a[1] - b[1];
+        return (dx * dx) + (dy * dy);
+    }
+
+    private static ApiClient.Result expectOk(ApiClient.Result res, String what) {
+        if (!res.ok() || res.body == null) {
+            throw new IllegalStateException("Seeding failed to " + what + ": HTTP " + res.status);
+        }
+        return res;
+    }
+}
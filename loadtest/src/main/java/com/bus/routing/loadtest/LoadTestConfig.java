@@ -0,0 +1,74 @@
+package com.bus.routing.loadtest;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Command line options, passed as --name=value (e.g. --stops=2000 --routes=100 --threads=32)
+public class LoadTestConfig {
+
+    public String baseUrl = "http://localhost:8080";
+    public int stops = 1000;
+    public int routes = 50;
+    public int stopsPerRoute = 30;
+    public int threads = 16;
+    public int warmupSeconds = 10;
+    public int durationSeconds = 60;
+    public long seed = 42L;
+
+    // Center of the synthetic city and how far (in degrees) stops spread out from it
+    public double centerLat = 40.7128;
+    public double centerLon = -74.0060;
+    public double spreadDeg = 0.15;
+
+    // Relative weights of the operation mix
+    public int detailsWeight = 70;
+    public int reorderWeight = 10;
+    public int moveWeight = 10;
+    public int mergeWeight = 7;
+    public int publishWeight = 3;
+
+    public static LoadTestConfig fromArgs(String[] args) {
+        Map<String, String> opts = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            opts.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+
+        LoadTestConfig c = new LoadTestConfig();
+        c.baseUrl = opts.getOrDefault("baseUrl", c.baseUrl).replaceAll("/+$", "");
+        c.stops = intOpt(opts, "stops", c.stops);
+        c.routes = intOpt(opts, "routes", c.routes);
+        c.stopsPerRoute = intOpt(opts, "stopsPerRoute", c.stopsPerRoute);
+        c.threads = intOpt(opts, "threads", c.threads);
+        c.warmupSeconds = intOpt(opts, "warmupSeconds", c.warmupSeconds);
+        c.durationSeconds = intOpt(opts, "durationSeconds", c.durationSeconds);
+        c.seed = Long.parseLong(opts.getOrDefault("seed", String.valueOf(c.seed)));
+        c.centerLat = Double.parseDouble(opts.getOrDefault("centerLat", String.valueOf(c.centerLat)));
+        c.centerLon = Double.parseDouble(opts.getOrDefault("centerLon", String.valueOf(c.centerLon)));
+        c.spreadDeg = Double.parseDouble(opts.getOrDefault("spreadDeg", String.valueOf(c.spreadDeg)));
+        c.detailsWeight = intOpt(opts, "detailsWeight", c.detailsWeight);
+        c.reorderWeight = intOpt(opts, "reorderWeight", c.reorderWeight);
+        c.moveWeight = intOpt(opts, "moveWeight", c.moveWeight);
+        c.mergeWeight = intOpt(opts, "mergeWeight", c.mergeWeight);
+        c.publishWeight = intOpt(opts, "publishWeight", c.publishWeight);
+
+        if (c.routes < 2) {
+            throw new IllegalArgumentException("routes must be at least 2 (merges need a base and a donor)");
+        }
+        if (c.stopsPerRoute < 2 || c.stopsPerRoute > c.stops) {
+            throw new IllegalArgumentException("stopsPerRoute must be between 2 and stops");
+        }
+        if (c.detailsWeight + c.reorderWeight + c.moveWeight + c.mergeWeight + c.publishWeight <= 0) {
+            throw new IllegalArgumentException("at least one operation weight must be positive");
+        }
+        return c;
+    }
+
+    private static int intOpt(Map<String, String> opts, String name, int def) {
+        String v = opts.get(name);
+        return v == null ? def : Integer.parseInt(v);
+    }
+}
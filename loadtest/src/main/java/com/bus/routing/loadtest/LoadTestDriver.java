@@ -0,0 +1,276 @@
+package com.bus.routing.loadtest;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import com.bus.routing.loadtest.CitySeeder.SeededRoute;
+
+/*
+ * Replays dispatcher-style traffic against a running bus routing app and prints
+ * throughput, latency percentiles and SQL statements per operation.
+ *
+ * 1. Start the app on an in-memory database:
+ *      ./mvnw -Ploadtest spring-boot:run -Dspring-boot.run.profiles=loadtest
+ * 2. Run the driver:
+ *      mvn -f loadtest/pom.xml compile exec:java -Dexec.args="--stops=1000 --routes=50 --threads=16"
+ *
+ * Options are listed in LoadTestConfig. The "sql/op" column is only filled when the
+ * app runs with the loadtest profile (it reads the X-Sql-Statements response header).
+ */
+public class LoadTestDriver {
+
+    private final ApiClient api;
+    private final LoadTestConfig config;
+    private final List<SeededRoute> routes;
+
+    private final Map<String, OperationStats> stats = new LinkedHashMap<>();
+    private final AtomicBoolean recording = new AtomicBoolean(false);
+    private final AtomicLong publishCounter = new AtomicLong();
+    private final AtomicLong unexpectedErrors = new AtomicLong();
+
+    // Only the first few unexpected failures are printed, the rest are just counted
+    private static final int MAX_LOGGED_ERRORS = 10;
+
+    // Thrown by timed() for a failure it has already counted
+    private static class CountedFailure extends RuntimeException {
+        CountedFailure(RuntimeException cause) {
+            super(cause);
+        }
+    }
+
+    public LoadTestDriver(ApiClient api, LoadTestConfig config, List<SeededRoute> routes) {
+        this.api = api;
+        this.config = config;
+        this.routes = routes;
+        for (String op : List.of("details", "reorder", "move", "merge", "draft-delete", "publish", "route-delete")) {
+            stats.put(op, new OperationStats(op));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromArgs(args);
+
+        try (ApiClient api = new ApiClient(config.baseUrl, config.threads * 2)) {
+            ApiClient.Result ping = api.get("/test");
+            if (!ping.ok()) {
+                throw new IllegalStateException("App not reachable at " + config.baseUrl + " (HTTP " + ping.status + ")");
+            }
+
+            System.out.printf("Seeding %d stops and %d routes x %d stops...%n",
+                    config.stops, config.routes, config.stopsPerRoute);
+            long seedStart = System.nanoTime();
+            List<SeededRoute> routes = new CitySeeder(api, config).seed();
+            System.out.printf("Seeded in %.1f s%n", (System.nanoTime() - seedStart) / 1e9);
+
+            new LoadTestDriver(api, config, routes).run();
+        }
+    }
+
+    public void run() throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch done = new CountDownLatch(config.threads);
+
+        for (int t = 0; t < config.threads; t++) {
+            Random random = new Random(config.seed + t);
+            Thread worker = new Thread(() -> {
+                try {
+                    while (running.get()) {
+                        runOne(random);
+                    }
+                } finally {
+                    done.countDown();
+                }
+            }, "loadtest-" + t);
+            worker.setDaemon(true);
+            worker.start();
+        }
+
+        System.out.printf("Warming up for %d s...%n", config.warmupSeconds);
+        Thread.sleep(config.warmupSeconds * 1000L);
+
+        System.out.printf("Measuring for %d s with %d threads...%n", config.durationSeconds, config.threads);
+        recording.set(true);
+        long start = System.nanoTime();
+        Thread.sleep(config.durationSeconds * 1000L);
+        recording.set(false);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        running.set(false);
+        done.await();
+
+        System.out.println();
+        System.out.println(OperationStats.reportHeader());
+        for (OperationStats s : stats.values()) {
+            System.out.println(s.reportLine(seconds));
+        }
+        if (unexpectedErrors.get() > 0) {
+            System.out.printf("%d unexpected errors (first %d printed to stderr)%n",
+                    unexpectedErrors.get(), Math.min(MAX_LOGGED_ERRORS, unexpectedErrors.get()));
+        }
+    }
+
+    private void runOne(Random random) {
+        int total = config.detailsWeight + config.reorderWeight + config.moveWeight
+                + config.mergeWeight + config.publishWeight;
+        int pick = random.nextInt(total);
+
+        String op = null;
+        try {
+            if ((pick -= config.detailsWeight) < 0) {
+                op = "details";
+                details(random);
+            } else if ((pick -= config.reorderWeight) < 0) {
+                op = "reorder";
+                reorder(random);
+            } else if ((pick -= config.moveWeight) < 0) {
+                op = "move";
+                move(random);
+            } else if ((pick -= config.mergeWeight) < 0) {
+                op = "merge";
+                mergeAndDiscard(random);
+            } else {
+                op = "publish";
+                mergeAndPublish(random);
+            }
+        } catch (CountedFailure e) {
+            // the request itself failed; timed() has counted it
+        } catch (RuntimeException e) {
+            // failed after a successful call (e.g. an unexpected response body)
+            if (recording.get()) stats.get(op).error();
+            if (unexpectedErrors.incrementAndGet() <= MAX_LOGGED_ERRORS) {
+                System.err.println("Unexpected error in " + op + ": " + e);
+            }
+        }
+    }
+
+    // GET /routes/{id}/details, what the UI does every time a route is selected
+    private void details(Random random) {
+        SeededRoute route = routes.get(random.nextInt(routes.size()));
+        timed("details", () -> api.get("/routes/" + route.routeId + "/details"));
+    }
+
+    // Drag one stop to a new position and PATCH every stop's order in parallel,
+    // the storm older UI versions sent after every drag.
+    private void reorder(Random random) {
+        SeededRoute route = routes.get(random.nextInt(routes.size()));
+
+        List<Long> order;
+        synchronized (route) {
+            int from = random.nextInt(route.routeStopIds.size());
+            int to = random.nextInt(route.routeStopIds.size());
+            route.routeStopIds.add(to, route.routeStopIds.remove(from));
+            order = new ArrayList<>(route.routeStopIds);
+        }
+
+        timed("reorder", () -> {
+            List<CompletableFuture<ApiClient.Result>> patches = new ArrayList<>();
+            for (int i = 0; i < order.size(); i++) {
+                patches.add(api.patchAsync("/route-stops/" + order.get(i), Map.of("stopOrder", i + 1)));
+            }
+
+            int status = 200;
+            int sql = 0;
+            for (CompletableFuture<ApiClient.Result> f : patches) {
+                ApiClient.Result r = f.join();
+                if (!r.ok()) status = r.status;
+                sql = (sql < 0 || r.sqlStatements < 0) ? -1 : sql + r.sqlStatements;
+            }
+            return new ApiClient.Result(status, null, sql);
+        });
+    }
+
+    // Drag one stop to a new position and PATCH only that stop, as the UI does since ranks are sparse
+    private void move(Random random) {
+        SeededRoute route = routes.get(random.nextInt(routes.size()));
+
+        long routeStopId;
+        int to;
+        synchronized (route) {
+            int from = random.nextInt(route.routeStopIds.size());
+            to = random.nextInt(route.routeStopIds.size());
+            routeStopId = route.routeStopIds.remove(from);
+            route.routeStopIds.add(to, routeStopId);
+        }
+
+        timed("move", () -> api.patch("/route-stops/" + routeStopId, Map.of("stopOrder", to + 1)));
+    }
+
+    private void mergeAndDiscard(Random random) {
+        Long draftId = merge(random);
+        if (draftId == null) return;
+
+        timed("draft-delete", () -> api.delete("/routes/" + draftId + "/draft"));
+    }
+
+    private void mergeAndPublish(Random random) {
+        Long draftId = merge(random);
+        if (draftId == null) return;
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("routeNumber", "LT-PUB-" + publishCounter.incrementAndGet());
+        body.put("deleteDraft", true);
+
+        ApiClient.Result published = timed("publish", () -> api.post("/routes/" + draftId + "/publish", body));
+        if (published == null || published.body == null) return;
+
+        // keep the city the same size for the whole run
+        long newRouteId = published.body.get("routeId").asLong();
+        timed("route-delete", () -> api.delete("/routes/" + newRouteId));
+    }
+
+    // POST /routes/{base}/merge with a few stops from another route; returns the draft route id
+    private Long merge(Random random) {
+        int baseIdx = random.nextInt(routes.size());
+        int donorIdx = (baseIdx + 1 + random.nextInt(routes.size() - 1)) % routes.size();
+        SeededRoute base = routes.get(baseIdx);
+        SeededRoute donor = routes.get(donorIdx);
+
+        List<Long> picked = new ArrayList<>();
+        synchronized (donor) {
+            int n = 1 + random.nextInt(Math.min(5, donor.routeStopIds.size()));
+            for (int i = 0; i < n; i++) {
+                picked.add(donor.routeStopIds.get(random.nextInt(donor.routeStopIds.size())));
+            }
+        }
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("fromRouteId", donor.routeId);
+        body.put("routeStopIds", picked);
+        body.put("strategy", "PROXIMITY");
+
+        ApiClient.Result res = timed("merge", () -> api.post("/routes/" + base.routeId + "/merge", body));
+        if (res == null || res.body == null) return null;
+        return res.body.get("routeId").asLong();
+    }
+
+    private ApiClient.Result timed(String op, Supplier<ApiClient.Result> call) {
+        OperationStats s = stats.get(op);
+        long start = System.nanoTime();
+        ApiClient.Result res;
+        try {
+            res = call.get();
+        } catch (RuntimeException e) {
+            if (recording.get()) s.error();
+            throw new CountedFailure(e);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        if (recording.get()) {
+            if (res.ok()) {
+                s.record(elapsed, res.sqlStatements);
+            } else {
+                s.error();
+            }
+        }
+        return res.ok() ? res : null;
+    }
+}
@@ -0,0 +1,68 @@
+package com.bus.routing.loadtest;
+
+import java.util.Arrays;
+
+// Latency samples, error count and SQL statement totals for one kind of operation
+public class OperationStats {
+
+    private final String name;
+    private long[] latenciesNanos = new long[1024];
+    private int count;
+    private long errors;
+    private long sqlStatements;
+    private long sqlSamples;
+
+    public OperationStats(String name) {
+        this.name = name;
+    }
+
+    public String getName() { return name; }
+
+    public synchronized void record(long latencyNanos, int sql) {
+        if (count == latenciesNanos.length) {
+            latenciesNanos = Arrays.copyOf(latenciesNanos, count * 2);
+        }
+        latenciesNanos[count++] = latencyNanos;
+        if (sql >= 0) {
+            sqlStatements += sql;
+            sqlSamples++;
+        }
+    }
+
+    public synchronized void error() {
+        errors++;
+    }
+
+    public synchronized String reportLine(double seconds) {
+        long[] sorted = Arrays.copyOf(latenciesNanos, count);
+        Arrays.sort(sorted);
+
+        String sql = sqlSamples == 0 ? "-" : String.format("%.1f", (double) sqlStatements / sqlSamples);
+        return String.format("%-14s %8d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %8s",
+                name,
+                count,
+                errors,
+                count / seconds,
+                millis(percentile(sorted, 50)),
+                millis(percentile(sorted, 90)),
+                millis(percentile(sorted, 99)),
+                millis(sorted.length == 0 ? 0 : sorted[sorted.length - 1]),
+                sql);
+    }
+
+    public static String reportHeader() {
+        return String.format("%-14s %8s %7s %9s %9s %9s %9s %9s %8s",
+                "operation", "count", "errors", "ops/s", "p50 ms", "p90 ms", "p99 ms", "max ms", "sql/op");
+    }
+
+    // nearest-rank percentile
+    private static long percentile(long[] sorted, int p) {
+        if (sorted.length == 0) return 0;
+        int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
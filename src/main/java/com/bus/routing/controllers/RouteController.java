@@ -2,15 +2,20 @@ package com.bus.routing.controllers;
 
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
 import com.bus.routing.controllers.dto.MergeRouteRequest;
 import com.bus.routing.controllers.dto.RenameRouteRequest;
 import com.bus.routing.controllers.dto.RouteDetailsResponse;
+import com.bus.routing.controllers.dto.RouteGeometryResponse;
 import com.bus.routing.controllers.dto.PublishDraftRequest;
 
 import com.bus.routing.models.Route;
+import com.bus.routing.models.RouteGeometry;
 import com.bus.routing.models.RouteStop;
 
 import com.bus.routing.repositories.RouteRepository;
@@ -18,6 +23,7 @@ import com.bus.routing.repositories.RouteStopRepository;
 
 import com.bus.routing.services.RouteMergeService;
 import com.bus.routing.services.DraftPublishService;
+import com.bus.routing.services.RouteGeometryService;
 
 
 
@@ -29,17 +35,20 @@ public class RouteController {
     private final RouteStopRepository routeStopRepository;
     private final RouteMergeService routeMergeService;
     private final DraftPublishService draftPublishService;
+    private final RouteGeometryService routeGeometryService;
 
     public RouteController(
             RouteRepository routeRepository,
             RouteStopRepository routeStopRepository,
             RouteMergeService routeMergeService,
-            DraftPublishService draftPublishService
+            DraftPublishService draftPublishService,
+            RouteGeometryService routeGeometryService
     ) {
         this.routeRepository = routeRepository;
         this.routeStopRepository = routeStopRepository;
         this.routeMergeService = routeMergeService;
         this.draftPublishService = draftPublishService;
+        this.routeGeometryService = routeGeometryService;
     }
 
 
@@ -62,7 +71,9 @@ public List<Route> getAllRoutes(@RequestParam(defaultValue = "false") boolean in
         if (route.isDraft()) {
             throw new IllegalArgumentException("Cannot create a draft route via POST /routes");
         }
-        return routeRepository.save(route);
+        Route saved = routeRepository.save(route);
+        routeGeometryService.rebuild(saved.getId()); // empty line, so /geometry answers from the start
+        return saved;
     }
 
     @DeleteMapping("/{id}")
@@ -73,6 +84,7 @@ public List<Route> getAllRoutes(@RequestParam(defaultValue = "false") boolean in
     // delete stops first to avoid FK issues
     List<RouteStop> stops = routeStopRepository.findByRouteIdOrderByStopOrderAsc(id);
     routeStopRepository.deleteAll(stops);
+    routeGeometryService.deleteForRoute(id);
 
     routeRepository.delete(route);
 }
@@ -110,6 +122,36 @@ public List<Route> getAllRoutes(@RequestParam(defaultValue = "false") boolean in
         return response;
     }
 
+    // Precomputed route line as an encoded polyline, simplified for the given map zoom.
+    // Answers 304 when the client's If-None-Match still matches.
+    @GetMapping("/{routeId}/geometry")
+    public ResponseEntity<RouteGeometryResponse> getRouteGeometry(
+            @PathVariable Long routeId,
+            @RequestParam(required = false) Integer zoom,
+            WebRequest request
+    ) {
+        if (!routeRepository.existsById(routeId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Route not found: " + routeId);
+        }
+
+        RouteGeometry geometry = routeGeometryService.getGeometry(routeId, zoom)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No geometry for route: " + routeId));
+        if (request.checkNotModified(geometry.getEtag())) {
+            return null;
+        }
+
+        RouteGeometryResponse response = new RouteGeometryResponse();
+        response.routeId = routeId;
+        response.zoom = geometry.getZoom();
+        response.polyline = geometry.getPolyline();
+        response.pointCount = geometry.getPointCount();
+
+        return ResponseEntity.ok()
+                .eTag(geometry.getEtag())
+                .cacheControl(CacheControl.noCache())
+                .body(response);
+    }
+
     // Non-destructive merge: creates a draft route
     @PostMapping("/{baseRouteId}/merge")
     public RouteDetailsResponse mergeRoute(@PathVariable Long baseRouteId, @RequestBody MergeRouteRequest req) {
@@ -138,7 +180,9 @@ public Route renameRoute(@PathVariable Long routeId, @RequestBody RenameRouteReq
         .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Route not found: " + routeId));
 
     route.setRouteNumber(req.routeNumber.trim());
-    return routeRepository.save(route);
+    Route saved = routeRepository.save(route);
+    routeGeometryService.invalidateTiles(routeId); // routeNumber is a tile attribute
+    return saved;
 }
 
 @PostMapping("/{draftRouteId}/publish")
@@ -5,12 +5,11 @@ import java.util.List;
 import org.springframework.web.bind.annotation.*;
 
 import com.bus.routing.controllers.dto.AddStopToRouteRequest;
-import com.bus.routing.models.Route;
 import com.bus.routing.models.RouteStop;
-import com.bus.routing.models.Stop;
-import com.bus.routing.repositories.RouteRepository;
 import com.bus.routing.repositories.RouteStopRepository;
-import com.bus.routing.repositories.StopRepository;
+import com.bus.routing.services.RouteGeometryService;
+import com.bus.routing.services.RouteStopInsertionService;
+import com.bus.routing.services.RouteStopRankService;
 import com.bus.routing.controllers.dto.UpdateRouteStopRequest;
 
 
@@ -19,16 +18,19 @@ import com.bus.routing.controllers.dto.UpdateRouteStopRequest;
 public class RouteStopController {
 
     private final RouteStopRepository routeStopRepository;
-    private final RouteRepository routeRepository;
-    private final StopRepository stopRepository;
+    private final RouteGeometryService routeGeometryService;
+    private final RouteStopInsertionService routeStopInsertionService;
+    private final RouteStopRankService routeStopRankService;
 
     public RouteStopController(
             RouteStopRepository routeStopRepository,
-            RouteRepository routeRepository,
-            StopRepository stopRepository) {
+            RouteGeometryService routeGeometryService,
+            RouteStopInsertionService routeStopInsertionService,
+            RouteStopRankService routeStopRankService) {
         this.routeStopRepository = routeStopRepository;
-        this.routeRepository = routeRepository;
-        this.stopRepository = stopRepository;
+        this.routeGeometryService = routeGeometryService;
+        this.routeStopInsertionService = routeStopInsertionService;
+        this.routeStopRankService = routeStopRankService;
     }
 
     @GetMapping("/route/{routeId}")
@@ -36,51 +38,52 @@ public class RouteStopController {
         return routeStopRepository.findByRouteIdOrderByStopOrderAsc(routeId);
     }
 
+    // Inserts at position req.stopOrder; the stops after it move down by one.
+    // ?placement=cheapest ignores stopOrder and picks the position with the smallest detour.
+    // ?retime=true pushes later pickup times back by the detour (and lets pickupTime be omitted).
     @PostMapping
-    public RouteStop addStopToRoute(@RequestBody AddStopToRouteRequest req) {
+    public RouteStop addStopToRoute(
+            @RequestBody AddStopToRouteRequest req,
+            @RequestParam(required = false) String placement,
+            @RequestParam(defaultValue = "false") boolean retime) {
 
         if (req == null || req.routeId == null || req.stopId == null) {
             throw new IllegalArgumentException("routeId and stopId are required");
         }
 
-        if (req.pickupTime == null || req.pickupTime.isBlank()) {
+        if (!retime && (req.pickupTime == null || req.pickupTime.isBlank())) {
             throw new IllegalArgumentException("pickupTime is required");
         }
 
-        Route route = routeRepository.findById(req.routeId)
-                .orElseThrow(() -> new IllegalArgumentException("Route not found: " + req.routeId));
-
-        Stop stop = stopRepository.findById(req.stopId)
-                .orElseThrow(() -> new IllegalArgumentException("Stop not found: " + req.stopId));
-
-        RouteStop rs = new RouteStop();
-        rs.setRoute(route);
-        rs.setStop(stop);
-        rs.setStopOrder(req.stopOrder);
-        rs.setPickupTime(req.pickupTime);
+        boolean cheapest;
+        if (placement == null || placement.equalsIgnoreCase("given")) {
+            cheapest = false;
+        } else if (placement.equalsIgnoreCase("cheapest")) {
+            cheapest = true;
+        } else {
+            throw new IllegalArgumentException("Unknown placement: " + placement + " (expected 'given' or 'cheapest')");
+        }
 
-        return routeStopRepository.save(rs);
+        return routeStopInsertionService.insertStop(
+                req.routeId, req.stopId, req.stopOrder, req.pickupTime, cheapest, retime);
     }
 
     @DeleteMapping("/{id}")
     public void deleteRouteStop(@PathVariable Long id) {
-        routeStopRepository.deleteById(id);
-    }
-    @PatchMapping("/{id}")
-public RouteStop updateRouteStop(@PathVariable Long id, @RequestBody UpdateRouteStopRequest req) {
+        Long routeId = routeStopRepository.findById(id)
+                .map(rs -> rs.getRoute() != null ? rs.getRoute().getId() : null)
+                .orElse(null);
 
-    RouteStop rs = routeStopRepository.findById(id)
-            .orElseThrow(() -> new IllegalArgumentException("RouteStop not found: " + id));
+        routeStopRepository.deleteById(id);
 
-    if (req.stopOrder != null) {
-        rs.setStopOrder(req.stopOrder);
+        if (routeId != null) {
+            routeGeometryService.rebuild(routeId);
+        }
     }
-
-    if (req.pickupTime != null) {
-        rs.setPickupTime(req.pickupTime);
+    // stopOrder is the position to move to; only this stop's row is written
+    @PatchMapping("/{id}")
+    public RouteStop updateRouteStop(@PathVariable Long id, @RequestBody UpdateRouteStopRequest req) {
+        return routeStopRankService.updateRouteStop(id, req.stopOrder, req.pickupTime);
     }
 
-    return routeStopRepository.save(rs);
-}
-
 }
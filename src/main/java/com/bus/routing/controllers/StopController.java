@@ -5,15 +5,18 @@ import java.util.List;
 
 import com.bus.routing.models.Stop;
 import com.bus.routing.repositories.StopRepository;
+import com.bus.routing.services.TileCache;
 
 @RestController
 @RequestMapping("/stops")
 public class StopController {
 
     private final StopRepository stopRepository;
+    private final TileCache tileCache;
 
-    public StopController(StopRepository stopRepository) {
+    public StopController(StopRepository stopRepository, TileCache tileCache) {
         this.stopRepository = stopRepository;
+        this.tileCache = tileCache;
     }
 
     @GetMapping
@@ -26,12 +29,17 @@ public class StopController {
         if (stop == null || stop.getName() == null || stop.getName().isBlank()) {
             throw new IllegalArgumentException("Stop name is required");
         }
-        return stopRepository.save(stop);
+        Stop saved = stopRepository.save(stop);
+        tileCache.invalidatePoint(saved.getLatitude(), saved.getLongitude());
+        return saved;
     }
     
 
     @DeleteMapping("/{id}")
     public void deleteStop(@PathVariable Long id) {
-        stopRepository.deleteById(id);
+        stopRepository.findById(id).ifPresent(stop -> {
+            stopRepository.delete(stop);
+            tileCache.invalidatePoint(stop.getLatitude(), stop.getLongitude());
+        });
     }
 }
@@ -0,0 +1,46 @@
+package com.bus.routing.controllers;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.bus.routing.services.TileCache;
+import com.bus.routing.services.VectorTileService;
+
+@RestController
+@RequestMapping("/tiles")
+public class TileController {
+
+    private static final MediaType MVT = MediaType.parseMediaType("application/vnd.mapbox-vector-tile");
+
+    private final VectorTileService vectorTileService;
+
+    public TileController(VectorTileService vectorTileService) {
+        this.vectorTileService = vectorTileService;
+    }
+
+    // Mapbox Vector Tile of published routes and stops, e.g. GET /tiles/12/1205/1539.mvt
+    @GetMapping("/{z}/{x}/{y}.mvt")
+    public ResponseEntity<byte[]> getTile(@PathVariable int z, @PathVariable int x, @PathVariable int y, WebRequest request) {
+        TileCache.Tile tile;
+        try {
+            tile = vectorTileService.getTile(z, x, y);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+
+        if (request.checkNotModified(tile.etag)) {
+            return null;
+        }
+
+        return ResponseEntity.ok()
+                .contentType(MVT)
+                .eTag(tile.etag)
+                .cacheControl(CacheControl.noCache())
+                .body(tile.data);
+    }
+}
@@ -0,0 +1,8 @@
+package com.bus.routing.controllers.dto;
+
+public class RouteGeometryResponse {
+    public Long routeId;
+    public int zoom;            // zoom level the line was simplified for
+    public String polyline;     // Google encoded polyline, precision 5
+    public int pointCount;
+}
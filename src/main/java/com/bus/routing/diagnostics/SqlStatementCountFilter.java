@@ -0,0 +1,37 @@
+package com.bus.routing.diagnostics;
+
+import java.io.IOException;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Reports how many SQL statements a request ran, so the load-test driver can track them per operation.
+// The body is buffered so the header can still be added after the controller has written it.
+@Component
+@Profile("loadtest")
+public class SqlStatementCountFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Sql-Statements";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        ContentCachingResponseWrapper wrapped = new ContentCachingResponseWrapper(response);
+        SqlStatementCounter.reset();
+        try {
+            chain.doFilter(request, wrapped);
+        } finally {
+            wrapped.setHeader(HEADER, String.valueOf(SqlStatementCounter.current()));
+            SqlStatementCounter.clear();
+            wrapped.copyBodyToResponse();
+        }
+    }
+}
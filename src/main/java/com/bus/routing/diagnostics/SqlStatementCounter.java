@@ -0,0 +1,28 @@
+package com.bus.routing.diagnostics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Hibernate hook that counts the SQL statements prepared on the current request thread.
+// Only wired in by the "loadtest" profile (see application-loadtest.properties).
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        return sql;
+    }
+
+    public static void reset() {
+        COUNT.get()[0] = 0;
+    }
+
+    public static int current() {
+        return COUNT.get()[0];
+    }
+
+    public static void clear() {
+        COUNT.remove();
+    }
+}
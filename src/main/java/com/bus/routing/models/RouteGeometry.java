@@ -0,0 +1,74 @@
+package com.bus.routing.models;
+
+import jakarta.persistence.*;
+
+// Precomputed line for one route at one zoom level, stored as a Google encoded polyline.
+// Rebuilt by RouteGeometryService whenever the route's stops change.
+@Entity
+@Table(name = "route_geometry",
+       uniqueConstraints = @UniqueConstraint(name = "uk_route_geometry_route_zoom", columnNames = { "route_id", "zoom" }),
+       indexes = @Index(name = "idx_route_geometry_zoom_box", columnList = "zoom, min_lat, max_lat, min_lon, max_lon"))
+public class RouteGeometry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "route_id", nullable = false)
+    private Long routeId;
+
+    @Column(nullable = false)
+    private int zoom;
+
+    @Lob
+    @Column(nullable = false)
+    private String polyline;
+
+    @Column(name = "point_count", nullable = false)
+    private int pointCount;
+
+    @Column(nullable = false, length = 64)
+    private String etag;
+
+    // Bounding box of the line, used to find the routes crossing a map tile (null when the route has no stops)
+    @Column(name = "min_lat")
+    private Double minLat;
+
+    @Column(name = "max_lat")
+    private Double maxLat;
+
+    @Column(name = "min_lon")
+    private Double minLon;
+
+    @Column(name = "max_lon")
+    private Double maxLon;
+
+    public Long getId() { return id; }
+
+    public Long getRouteId() { return routeId; }
+    public void setRouteId(Long routeId) { this.routeId = routeId; }
+
+    public int getZoom() { return zoom; }
+    public void setZoom(int zoom) { this.zoom = zoom; }
+
+    public String getPolyline() { return polyline; }
+    public void setPolyline(String polyline) { this.polyline = polyline; }
+
+    public int getPointCount() { return pointCount; }
+    public void setPointCount(int pointCount) { this.pointCount = pointCount; }
+
+    public String getEtag() { return etag; }
+    public void setEtag(String etag) { this.etag = etag; }
+
+    public Double getMinLat() { return minLat; }
+    public void setMinLat(Double minLat) { this.minLat = minLat; }
+
+    public Double getMaxLat() { return maxLat; }
+    public void setMaxLat(Double maxLat) { this.maxLat = maxLat; }
+
+    public Double getMinLon() { return minLon; }
+    public void setMinLon(Double minLon) { this.minLon = minLon; }
+
+    public Double getMaxLon() { return maxLon; }
+    public void setMaxLon(Double maxLon) { this.maxLon = maxLon; }
+}
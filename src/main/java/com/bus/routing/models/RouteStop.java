@@ -1,5 +1,7 @@
 package com.bus.routing.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import jakarta.persistence.*;
 
 @Entity
@@ -15,6 +17,14 @@ public class RouteStop {
     @ManyToOne
     private Stop stop;
 
+    // Sparse sort key within the route (see RouteStopRankService). Lives in the old stop_order
+    // column so existing rows, numbered 1..n, are already valid ranks.
+    @Column(name = "stop_order")
+    @JsonIgnore
+    private long rank;
+
+    // Dense 1..n position, filled in when the route's stops are read in order
+    @Transient
     private int stopOrder;
 
     public Long getId() { return id; }
@@ -25,6 +35,9 @@ public class RouteStop {
     public Stop getStop() { return stop; }
     public void setStop(Stop stop) { this.stop = stop; }
 
+    public long getRank() { return rank; }
+    public void setRank(long rank) { this.rank = rank; }
+
     public int getStopOrder() { return stopOrder; }
     public void setStopOrder(int stopOrder) { this.stopOrder = stopOrder; }
     
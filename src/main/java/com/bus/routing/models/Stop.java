@@ -3,6 +3,7 @@ package com.bus.routing.models;
 import jakarta.persistence.*;
 
 @Entity
+@Table(indexes = @Index(name = "idx_stop_lat_lon", columnList = "latitude, longitude")) // map tile lookups
 public class Stop {
 
     @Id
@@ -0,0 +1,30 @@
+package com.bus.routing.repositories;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import com.bus.routing.models.RouteGeometry;
+
+public interface RouteGeometryRepository extends JpaRepository<RouteGeometry, Long> {
+    Optional<RouteGeometry> findByRouteIdAndZoom(Long routeId, int zoom);
+    List<RouteGeometry> findByRouteId(Long routeId);
+    void deleteByRouteId(Long routeId);
+
+    // Published (non-draft) route lines at one zoom level whose bounding box overlaps the given box
+    @Query("select g from RouteGeometry g where g.zoom = :zoom"
+            + " and g.minLat <= :maxLat and g.maxLat >= :minLat"
+            + " and g.minLon <= :maxLon and g.maxLon >= :minLon"
+            + " and exists (select r.id from Route r where r.id = g.routeId and r.draft = false)")
+    List<RouteGeometry> findPublishedInBox(
+            @Param("zoom") int zoom,
+            @Param("minLat") double minLat,
+            @Param("maxLat") double maxLat,
+            @Param("minLon") double minLon,
+            @Param("maxLon") double maxLon);
+
+    @Query("select r.id from Route r where not exists (select g.id from RouteGeometry g where g.routeId = r.id)")
+    List<Long> findRouteIdsWithoutGeometry();
+}
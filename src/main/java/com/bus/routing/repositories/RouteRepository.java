@@ -1,10 +1,19 @@
 package com.bus.routing.repositories;
 
 import java.util.List;
+import java.util.Optional;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import com.bus.routing.models.Route;
 
+import jakarta.persistence.LockModeType;
+
 public interface RouteRepository extends JpaRepository<Route, Long> {
     List<Route> findByDraftFalse();
+
+    // Serializes changes to one route's stop ranks (SELECT ... FOR UPDATE on the route row)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Route> findWithLockById(Long id);
 }
 
@@ -2,13 +2,46 @@ package com.bus.routing.repositories;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import com.bus.routing.models.RouteStop;
 
 public interface RouteStopRepository extends JpaRepository<RouteStop, Long> {
-    List<RouteStop> findByRouteIdOrderByStopOrderAsc(Long routeId);
     List<RouteStop> findByIdIn(Collection<Long> ids);
     List<RouteStop> findByRouteId(Long routeId);
     void deleteByRouteId(Long routeId);
+
+    List<RouteStop> findByRouteIdOrderByRankAscIdAsc(Long routeId);
+
+    @EntityGraph(attributePaths = "stop")
+    List<RouteStop> findWithStopByRouteIdOrderByRankAscIdAsc(Long routeId);
+
+    @Query("select rs.route.id from RouteStop rs where rs.id = :id")
+    Optional<Long> findRouteIdById(@Param("id") Long id);
+
+    // Stops ahead of (rank, id) on the route, matching the rank-then-id order used on read
+    @Query("select count(rs) from RouteStop rs where rs.route.id = :routeId"
+            + " and (rs.rank < :rank or (rs.rank = :rank and rs.id < :id))")
+    long countBefore(@Param("routeId") Long routeId, @Param("rank") long rank, @Param("id") Long id);
+
+    // Route stops in order, with stopOrder set to their 1..n position
+    default List<RouteStop> findByRouteIdOrderByStopOrderAsc(Long routeId) {
+        return numbered(findByRouteIdOrderByRankAscIdAsc(routeId));
+    }
+
+    // Same as findByRouteIdOrderByStopOrderAsc, but loads the stops in the same query
+    default List<RouteStop> findWithStopByRouteIdOrderByStopOrderAsc(Long routeId) {
+        return numbered(findWithStopByRouteIdOrderByRankAscIdAsc(routeId));
+    }
+
+    private static List<RouteStop> numbered(List<RouteStop> stops) {
+        for (int i = 0; i < stops.size(); i++) {
+            stops.get(i).setStopOrder(i + 1);
+        }
+        return stops;
+    }
 }
@@ -1,7 +1,10 @@
 package com.bus.routing.repositories;
 
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
 import com.bus.routing.models.Stop;
 
 public interface StopRepository extends JpaRepository<Stop, Long> {
+    List<Stop> findByLatitudeBetweenAndLongitudeBetween(double minLat, double maxLat, double minLon, double maxLon);
 }
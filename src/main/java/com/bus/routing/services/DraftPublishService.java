@@ -15,10 +15,15 @@ public class DraftPublishService {
 
     private final RouteRepository routeRepository;
     private final RouteStopRepository routeStopRepository;
+    private final RouteGeometryService routeGeometryService;
 
-    public DraftPublishService(RouteRepository routeRepository, RouteStopRepository routeStopRepository) {
+    public DraftPublishService(
+            RouteRepository routeRepository,
+            RouteStopRepository routeStopRepository,
+            RouteGeometryService routeGeometryService) {
         this.routeRepository = routeRepository;
         this.routeStopRepository = routeStopRepository;
+        this.routeGeometryService = routeGeometryService;
     }
 
     @Transactional
@@ -48,14 +53,16 @@ public class DraftPublishService {
             RouteStop ns = new RouteStop();
             ns.setRoute(newRoute);
             ns.setStop(ds.getStop());
-            ns.setStopOrder(ds.getStopOrder());
+            ns.setRank(RouteStopRankService.initialRank(ds.getStopOrder()));
             ns.setPickupTime(ds.getPickupTime());
             routeStopRepository.save(ns);
         }
+        routeGeometryService.rebuild(newRoute.getId());
 
         // Optionally delete the draft (and its route-stops)
         if (deleteDraft) {
             routeStopRepository.deleteAll(draftStops);
+            routeGeometryService.deleteForRoute(draftRouteId);
             routeRepository.delete(draft);
         }
 
@@ -0,0 +1,179 @@
+package com.bus.routing.services;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Minimal Mapbox Vector Tile (v2.1) writer: points and line strings with string/integer attributes.
+// Writes the protobuf wire format by hand so we don't need a protobuf dependency for three messages.
+final class MvtEncoder {
+
+    static final int EXTENT = 4096;
+
+    private static final int GEOM_POINT = 1;
+    private static final int GEOM_LINESTRING = 2;
+
+    private static final int CMD_MOVE_TO = 1;
+    private static final int CMD_LINE_TO = 2;
+
+    static final class Layer {
+        private final String name;
+        private final Map<String, Integer> keys = new LinkedHashMap<>();
+        private final Map<Object, Integer> values = new LinkedHashMap<>();
+        private final List<byte[]> features = new ArrayList<>();
+
+        Layer(String name) {
+            this.name = name;
+        }
+
+        boolean isEmpty() {
+            return features.isEmpty();
+        }
+
+        void addPoint(long id, int x, int y, Map<String, Object> attrs) {
+            int[] geometry = {
+                command(CMD_MOVE_TO, 1), zigzag(x), zigzag(y)
+            };
+            features.add(feature(id, GEOM_POINT, geometry, attrs));
+        }
+
+        // One feature made of one or more line parts (a MultiLineString when more than one).
+        // Each part is x0, y0, x1, y1, ... in tile coordinates. Repeated points are dropped
+        // and parts left with fewer than 2 points are skipped.
+        void addLines(long id, List<int[]> parts, Map<String, Object> attrs) {
+            int size = 0;
+            for (int[] part : parts) size += 4 + part.length;
+
+            int[] geometry = new int[size];
+            int n = 0;
+            int cx = 0;
+            int cy = 0;
+            for (int[] part : parts) {
+                int start = n;
+                int px = part[0];
+                int py = part[1];
+                geometry[n++] = command(CMD_MOVE_TO, 1);
+                geometry[n++] = zigzag(px - cx);
+                geometry[n++] = zigzag(py - cy);
+
+                int lineToAt = n++;
+                int segments = 0;
+                for (int i = 2; i + 1 < part.length; i += 2) {
+                    int dx = part[i] - px;
+                    int dy = part[i + 1] - py;
+                    if (dx == 0 && dy == 0) continue;
+                    geometry[n++] = zigzag(dx);
+                    geometry[n++] = zigzag(dy);
+                    px = part[i];
+                    py = part[i + 1];
+                    segments++;
+                }
+
+                if (segments == 0) {
+                    n = start; // nothing drawn, the cursor stays where it was
+                    continue;
+                }
+                geometry[lineToAt] = command(CMD_LINE_TO, segments);
+                cx = px;
+                cy = py;
+            }
+            if (n == 0) return;
+
+            features.add(feature(id, GEOM_LINESTRING, Arrays.copyOf(geometry, n), attrs));
+        }
+
+        private byte[] feature(long id, int type, int[] geometry, Map<String, Object> attrs) {
+            Proto tags = new Proto();
+            for (Map.Entry<String, Object> a : attrs.entrySet()) {
+                if (a.getValue() == null) continue;
+                tags.varint(keys.computeIfAbsent(a.getKey(), k -> keys.size()));
+                tags.varint(values.computeIfAbsent(a.getValue(), v -> values.size()));
+            }
+
+            Proto geom = new Proto();
+            for (int g : geometry) geom.varint(Integer.toUnsignedLong(g));
+
+            Proto f = new Proto();
+            f.tag(1, 0).varint(id);
+            f.tag(2, 2).bytes(tags.toBytes());
+            f.tag(3, 0).varint(type);
+            f.tag(4, 2).bytes(geom.toBytes());
+            return f.toBytes();
+        }
+
+        private byte[] encode() {
+            Proto l = new Proto();
+            l.tag(15, 0).varint(2);
+            l.tag(1, 2).bytes(name.getBytes(StandardCharsets.UTF_8));
+            for (byte[] f : features) {
+                l.tag(2, 2).bytes(f);
+            }
+            for (String k : keys.keySet()) {
+                l.tag(3, 2).bytes(k.getBytes(StandardCharsets.UTF_8));
+            }
+            for (Object v : values.keySet()) {
+                Proto value = new Proto();
+                if (v instanceof Number num) {
+                    value.tag(4, 0).varint(num.longValue()); // int_value
+                } else {
+                    value.tag(1, 2).bytes(v.toString().getBytes(StandardCharsets.UTF_8)); // string_value
+                }
+                l.tag(4, 2).bytes(value.toBytes());
+            }
+            l.tag(5, 0).varint(EXTENT);
+            return l.toBytes();
+        }
+    }
+
+    private MvtEncoder() {}
+
+    static byte[] encode(List<Layer> layers) {
+        Proto tile = new Proto();
+        for (Layer layer : layers) {
+            if (!layer.isEmpty()) {
+                tile.tag(3, 2).bytes(layer.encode());
+            }
+        }
+        return tile.toBytes();
+    }
+
+    private static int command(int id, int count) {
+        return (id & 0x7) | (count << 3);
+    }
+
+    private static int zigzag(int n) {
+        return (n << 1) ^ (n >> 31);
+    }
+
+    // Protobuf wire format writer
+    private static final class Proto {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        Proto tag(int field, int wireType) {
+            return varint(((long) field << 3) | wireType);
+        }
+
+        Proto varint(long v) {
+            while ((v & ~0x7FL) != 0) {
+                out.write((int) ((v & 0x7F) | 0x80));
+                v >>>= 7;
+            }
+            out.write((int) v);
+            return this;
+        }
+
+        Proto bytes(byte[] b) {
+            varint(b.length);
+            out.write(b, 0, b.length);
+            return this;
+        }
+
+        byte[] toBytes() {
+            return out.toByteArray();
+        }
+    }
+}
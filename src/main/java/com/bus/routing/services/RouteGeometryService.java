@@ -0,0 +1,292 @@
+package com.bus.routing.services;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bus.routing.models.RouteGeometry;
+import com.bus.routing.models.RouteStop;
+import com.bus.routing.models.Stop;
+import com.bus.routing.repositories.RouteGeometryRepository;
+import com.bus.routing.repositories.RouteRepository;
+import com.bus.routing.repositories.RouteStopRepository;
+
+@Service
+public class RouteGeometryService {
+
+    // Zoom levels we precompute. A request is served from the first level >= the asked zoom,
+    // so the line is never coarser than the map needs.
+    static final int[] ZOOM_LEVELS = { 6, 9, 12, 15, 18 };
+
+    private final RouteGeometryRepository routeGeometryRepository;
+    private final RouteRepository routeRepository;
+    private final RouteStopRepository routeStopRepository;
+    private final TileCache tileCache;
+    private final TransactionTemplate transactionTemplate;
+
+    public RouteGeometryService(
+            RouteGeometryRepository routeGeometryRepository,
+            RouteRepository routeRepository,
+            RouteStopRepository routeStopRepository,
+            TileCache tileCache,
+            PlatformTransactionManager transactionManager) {
+        this.routeGeometryRepository = routeGeometryRepository;
+        this.routeRepository = routeRepository;
+        this.routeStopRepository = routeStopRepository;
+        this.tileCache = tileCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Routes created before geometry existed would be missing from map tiles until their next edit.
+    // Requests are already being served by now, so each route commits (and unlocks) on its own.
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildMissing() {
+        for (Long routeId : routeGeometryRepository.findRouteIdsWithoutGeometry()) {
+            transactionTemplate.executeWithoutResult(tx -> rebuild(routeId));
+        }
+    }
+
+    // Call after any change to a route's stops (add, remove, reorder), and when a route is created.
+    // Runs with the route row locked so two rebuilds of one route can't interleave.
+    @Transactional
+    public void rebuild(Long routeId) {
+        if (routeRepository.findWithLockById(routeId).isEmpty()) {
+            return; // route deleted meanwhile
+        }
+
+        List<double[]> points = new ArrayList<>();
+        for (RouteStop rs : routeStopRepository.findWithStopByRouteIdOrderByStopOrderAsc(routeId)) {
+            Stop stop = rs.getStop();
+            if (stop != null) {
+                points.add(new double[] { stop.getLatitude(), stop.getLongitude() });
+            }
+        }
+
+        // Rows are updated in place, one per zoom level
+        Map<Integer, RouteGeometry> existing = new HashMap<>();
+        for (RouteGeometry g : routeGeometryRepository.findByRouteId(routeId)) {
+            existing.put(g.getZoom(), g);
+        }
+
+        invalidateTiles(existing.get(ZOOM_LEVELS[ZOOM_LEVELS.length - 1]));
+
+        double[] box = boundingBox(points);
+        if (box != null) {
+            tileCache.invalidate(box[0], box[1], box[2], box[3]);
+        }
+
+        List<RouteGeometry> rows = new ArrayList<>();
+        for (int zoom : ZOOM_LEVELS) {
+            List<double[]> simplified = simplify(points, toleranceForZoom(zoom));
+            String polyline = encode(simplified);
+
+            RouteGeometry g = existing.remove(zoom);
+            if (g == null) {
+                g = new RouteGeometry();
+                g.setRouteId(routeId);
+                g.setZoom(zoom);
+            }
+            g.setPolyline(polyline);
+            g.setPointCount(simplified.size());
+            g.setEtag(etag(routeId, zoom, polyline));
+            g.setMinLat(box != null ? box[0] : null);
+            g.setMinLon(box != null ? box[1] : null);
+            g.setMaxLat(box != null ? box[2] : null);
+            g.setMaxLon(box != null ? box[3] : null);
+            rows.add(g);
+        }
+        routeGeometryRepository.saveAll(rows);
+
+        // leftovers from zoom levels we no longer build
+        routeGeometryRepository.deleteAll(existing.values());
+    }
+
+    @Transactional
+    public void deleteForRoute(Long routeId) {
+        routeRepository.findWithLockById(routeId);
+        invalidateTiles(routeId);
+        routeGeometryRepository.deleteByRouteId(routeId);
+    }
+
+    // Drop cached map tiles the route's current line passes through (e.g. after a rename)
+    @Transactional(readOnly = true)
+    public void invalidateTiles(Long routeId) {
+        invalidateTiles(routeGeometryRepository
+                .findByRouteIdAndZoom(routeId, ZOOM_LEVELS[ZOOM_LEVELS.length - 1]).orElse(null));
+    }
+
+    private void invalidateTiles(RouteGeometry g) {
+        if (g != null && g.getMinLat() != null) {
+            tileCache.invalidate(g.getMinLat(), g.getMinLon(), g.getMaxLat(), g.getMaxLon());
+        }
+    }
+
+    // Read-only: geometry is written by rebuild() on edits and by the startup backfill
+    @Transactional(readOnly = true)
+    public Optional<RouteGeometry> getGeometry(Long routeId, Integer zoom) {
+        return routeGeometryRepository.findByRouteIdAndZoom(routeId, levelFor(zoom));
+    }
+
+    static int levelFor(Integer zoom) {
+        if (zoom == null) return ZOOM_LEVELS[ZOOM_LEVELS.length - 1];
+        for (int level : ZOOM_LEVELS) {
+            if (level >= zoom) return level;
+        }
+        return ZOOM_LEVELS[ZOOM_LEVELS.length - 1];
+    }
+
+    // About one screen pixel at this zoom, in degrees (256px tiles)
+    static double toleranceForZoom(int zoom) {
+        return 360.0 / (256.0 * Math.pow(2, zoom));
+    }
+
+    // Douglas-Peucker, iterative so long routes can't blow the stack
+    static List<double[]> simplify(List<double[]> points, double tolerance) {
+        int n = points.size();
+        if (n <= 2) return points;
+
+        boolean[] keep = new boolean[n];
+        keep[0] = true;
+        keep[n - 1] = true;
+
+        Deque<int[]> ranges = new ArrayDeque<>();
+        ranges.push(new int[] { 0, n - 1 });
+
+        while (!ranges.isEmpty()) {
+            int[] r = ranges.pop();
+            int first = r[0];
+            int last = r[1];
+
+            int farthest = -1;
+            double farthestDist = tolerance;
+            for (int i = first + 1; i < last; i++) {
+                double d = segmentDistance(points.get(i), points.get(first), points.get(last));
+                if (d > farthestDist) {
+                    farthestDist = d;
+                    farthest = i;
+                }
+            }
+
+            if (farthest >= 0) {
+                keep[farthest] = true;
+                ranges.push(new int[] { first, farthest });
+                ranges.push(new int[] { farthest, last });
+            }
+        }
+
+        List<double[]> result = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            if (keep[i]) result.add(points.get(i));
+        }
+        return result;
+    }
+
+    // distance from p to segment a-b on plain lat/lon (same approximation as RouteMergeService)
+    private static double segmentDistance(double[] p, double[] a, double[] b) {
+        double dx = b[0] - a[0];
+        double dy = b[1] - a[1];
+        double lenSq = dx * dx + dy * dy;
+
+        double t = lenSq == 0 ? 0 : ((p[0] - a[0]) * dx + (p[1] - a[1]) * dy) / lenSq;
+        t = Math.max(0, Math.min(1, t));
+
+        double ex = p[0] - (a[0] + t * dx);
+        double ey = p[1] - (a[1] + t * dy);
+        return Math.sqrt(ex * ex + ey * ey);
+    }
+
+    // { minLat, minLon, maxLat, maxLon }, or null for no points
+    private static double[] boundingBox(List<double[]> points) {
+        if (points.isEmpty()) return null;
+
+        double[] box = { Double.MAX_VALUE, Double.MAX_VALUE, -Double.MAX_VALUE, -Double.MAX_VALUE };
+        for (double[] p : points) {
+            box[0] = Math.min(box[0], p[0]);
+            box[1] = Math.min(box[1], p[1]);
+            box[2] = Math.max(box[2], p[0]);
+            box[3] = Math.max(box[3], p[1]);
+        }
+        return box;
+    }
+
+    // Google encoded polyline format, precision 1e5
+    static String encode(List<double[]> points) {
+        StringBuilder sb = new StringBuilder();
+        long prevLat = 0;
+        long prevLon = 0;
+        for (double[] p : points) {
+            long lat = Math.round(p[0] * 1e5);
+            long lon = Math.round(p[1] * 1e5);
+            encodeValue(lat - prevLat, sb);
+            encodeValue(lon - prevLon, sb);
+            prevLat = lat;
+            prevLon = lon;
+        }
+        return sb.toString();
+    }
+
+    private static void encodeValue(long value, StringBuilder sb) {
+        long v = value < 0 ? ~(value << 1) : (value << 1);
+        while (v >= 0x20) {
+            sb.append((char) ((0x20 | (v & 0x1f)) + 63));
+            v >>= 5;
+        }
+        sb.append((char) (v + 63));
+    }
+
+    static List<double[]> decode(String polyline) {
+        List<double[]> points = new ArrayList<>();
+        int index = 0;
+        long lat = 0;
+        long lon = 0;
+        while (index < polyline.length()) {
+            long[] next = decodeValue(polyline, index);
+            lat += next[0];
+            next = decodeValue(polyline, (int) next[1]);
+            lon += next[0];
+            index = (int) next[1];
+            points.add(new double[] { lat / 1e5, lon / 1e5 });
+        }
+        return points;
+    }
+
+    // returns { value, index after it }
+    private static long[] decodeValue(String s, int index) {
+        long result = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = s.charAt(index++) - 63;
+            result |= (long) (b & 0x1f) << shift;
+            shift += 5;
+        } while (b >= 0x20);
+        long value = (result & 1) != 0 ? ~(result >> 1) : (result >> 1);
+        return new long[] { value, index };
+    }
+
+    private static String etag(Long routeId, int zoom, String polyline) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            md.update((routeId + ":" + zoom + ":").getBytes(StandardCharsets.UTF_8));
+            md.update(polyline.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(md.digest(), 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
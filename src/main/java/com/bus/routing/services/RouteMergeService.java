@@ -15,10 +15,15 @@ public class RouteMergeService {
 
     private final RouteRepository routeRepository;
     private final RouteStopRepository routeStopRepository;
+    private final RouteGeometryService routeGeometryService;
 
-    public RouteMergeService(RouteRepository routeRepository, RouteStopRepository routeStopRepository) {
+    public RouteMergeService(
+            RouteRepository routeRepository,
+            RouteStopRepository routeStopRepository,
+            RouteGeometryService routeGeometryService) {
         this.routeRepository = routeRepository;
         this.routeStopRepository = routeStopRepository;
+        this.routeGeometryService = routeGeometryService;
     }
 
 @Transactional
@@ -93,7 +98,7 @@ public Route mergeIntoDraftRoute(Long baseRouteId, Long donorRouteId, List<Long>
         RouteStop newRs = new RouteStop();
         newRs.setRoute(draft);
         newRs.setStop(stop);
-        newRs.setStopOrder(order++);
+        newRs.setRank(RouteStopRankService.initialRank(order++));
 
         // Keep pickupTime if it existed on base route; otherwise null
         if (stop != null && stop.getId() != null && basePickupByStopId.containsKey(stop.getId())) {
@@ -105,6 +110,8 @@ public Route mergeIntoDraftRoute(Long baseRouteId, Long donorRouteId, List<Long>
         routeStopRepository.save(newRs);
     }
 
+    routeGeometryService.rebuild(draft.getId());
+
     // Return the draft route (controller can call /details on it)
     return draft;
 }
@@ -120,6 +127,7 @@ public void deleteDraftRoute(Long routeId) {
 
     List<RouteStop> stops = routeStopRepository.findByRouteIdOrderByStopOrderAsc(routeId);
     routeStopRepository.deleteAll(stops);
+    routeGeometryService.deleteForRoute(routeId);
 
     routeRepository.delete(route);
 }
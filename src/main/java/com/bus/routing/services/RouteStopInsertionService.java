@@ -0,0 +1,182 @@
+package com.bus.routing.services;
+
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.bus.routing.models.Route;
+import com.bus.routing.models.RouteStop;
+import com.bus.routing.models.Stop;
+import com.bus.routing.repositories.RouteRepository;
+import com.bus.routing.repositories.RouteStopRepository;
+import com.bus.routing.repositories.StopRepository;
+
+// Adds one stop to an existing route. The new stop takes a rank between its neighbours
+// (see RouteStopRankService), so the rest of the route is not renumbered.
+@Service
+public class RouteStopInsertionService {
+
+    private static final DateTimeFormatter HH_MM = DateTimeFormatter.ofPattern("HH:mm");
+
+    private final RouteRepository routeRepository;
+    private final RouteStopRepository routeStopRepository;
+    private final StopRepository stopRepository;
+    private final RouteGeometryService routeGeometryService;
+    private final RouteStopRankService routeStopRankService;
+
+    // Average bus speed used to turn extra distance into extra minutes when re-timing
+    private final double metersPerMinute;
+
+    public RouteStopInsertionService(
+            RouteRepository routeRepository,
+            RouteStopRepository routeStopRepository,
+            StopRepository stopRepository,
+            RouteGeometryService routeGeometryService,
+            RouteStopRankService routeStopRankService,
+            @Value("${routing.retime.speed-kmh:25}") double speedKmh) {
+        this.routeRepository = routeRepository;
+        this.routeStopRepository = routeStopRepository;
+        this.stopRepository = stopRepository;
+        this.routeGeometryService = routeGeometryService;
+        this.routeStopRankService = routeStopRankService;
+        this.metersPerMinute = speedKmh * 1000.0 / 60.0;
+    }
+
+    /*
+     * cheapest = false: insert at the requested stopOrder (< 1 or past the end appends).
+     * cheapest = true:  ignore stopOrder and insert where the detour is smallest.
+     * retime = true:    push downstream pickup times back by the detour's travel time, and fill in
+     *                   the new stop's pickupTime from its neighbours when none was given.
+     */
+    @Transactional
+    public RouteStop insertStop(Long routeId, Long stopId, int requestedOrder, String pickupTime,
+                                boolean cheapest, boolean retime) {
+
+        Route route = routeRepository.findWithLockById(routeId)
+                .orElseThrow(() -> new IllegalArgumentException("Route not found: " + routeId));
+
+        Stop stop = stopRepository.findById(stopId)
+                .orElseThrow(() -> new IllegalArgumentException("Stop not found: " + stopId));
+
+        List<RouteStop> current = routeStopRepository.findWithStopByRouteIdOrderByStopOrderAsc(routeId);
+        int n = current.size();
+
+        int position = cheapest
+                ? cheapestPosition(current, stop)
+                : (requestedOrder < 1 ? n : Math.min(n, requestedOrder - 1));
+
+        RouteStop prev = position > 0 ? current.get(position - 1) : null;
+        RouteStop next = position < n ? current.get(position) : null;
+
+        if (pickupTime == null || pickupTime.isBlank()) {
+            pickupTime = retime ? interpolatePickup(prev, next, stop) : null;
+            if (pickupTime == null) {
+                throw new IllegalArgumentException("pickupTime is required");
+            }
+        }
+
+        int delayMinutes = (retime && prev != null && next != null) ? detourMinutes(prev.getStop(), stop, next.getStop()) : 0;
+        if (delayMinutes > 0) {
+            for (RouteStop rs : current.subList(position, n)) {
+                LocalTime t = parseTime(rs.getPickupTime());
+                if (t != null) {
+                    rs.setPickupTime(shift(t, delayMinutes).format(HH_MM));
+                }
+            }
+        }
+
+        RouteStop rs = new RouteStop();
+        rs.setRoute(route);
+        rs.setStop(stop);
+        rs.setRank(routeStopRankService.rankAt(routeId, current, position));
+        rs.setPickupTime(pickupTime);
+        RouteStop saved = routeStopRepository.save(rs);
+        saved.setStopOrder(position + 1);
+
+        routeGeometryService.rebuild(routeId);
+        return saved;
+    }
+
+    // Index to insert before (0..n) that adds the least distance to the route, in one pass
+    static int cheapestPosition(List<RouteStop> route, Stop stop) {
+        int n = route.size();
+        if (n == 0) return 0;
+
+        int best = 0;
+        double bestCost = meters(stop, route.get(0).getStop());
+
+        for (int i = 1; i < n; i++) {
+            Stop a = route.get(i - 1).getStop();
+            Stop b = route.get(i).getStop();
+            double cost = meters(a, stop) + meters(stop, b) - meters(a, b);
+            if (cost < bestCost) {
+                bestCost = cost;
+                best = i;
+            }
+        }
+
+        double appendCost = meters(route.get(n - 1).getStop(), stop);
+        if (appendCost < bestCost) {
+            best = n;
+        }
+        return best;
+    }
+
+    private String interpolatePickup(RouteStop prev, RouteStop next, Stop stop) {
+        LocalTime prevTime = prev != null ? parseTime(prev.getPickupTime()) : null;
+        if (prevTime != null) {
+            return shift(prevTime, travelMinutes(meters(prev.getStop(), stop))).format(HH_MM);
+        }
+
+        LocalTime nextTime = next != null ? parseTime(next.getPickupTime()) : null;
+        if (nextTime != null) {
+            return shift(nextTime, -travelMinutes(meters(stop, next.getStop()))).format(HH_MM);
+        }
+        return null;
+    }
+
+    private int detourMinutes(Stop a, Stop inserted, Stop b) {
+        double extra = meters(a, inserted) + meters(inserted, b) - meters(a, b);
+        return extra <= 0 ? 0 : travelMinutes(extra);
+    }
+
+    private int travelMinutes(double meters) {
+        return (int) Math.ceil(meters / metersPerMinute);
+    }
+
+    // Pickup times are times of day, so a shift that crosses midnight would wrap around and
+    // break the route's time order. Refuse it instead (the whole insert rolls back).
+    static LocalTime shift(LocalTime t, int minutes) {
+        int shifted = t.getHour() * 60 + t.getMinute() + minutes;
+        if (shifted < 0 || shifted >= 24 * 60) {
+            throw new IllegalArgumentException("Re-timing would move pickup " + t.format(HH_MM)
+                    + " by " + minutes + " min across midnight; set the pickup times manually");
+        }
+        return t.plusMinutes(minutes);
+    }
+
+    // pickupTime is free text (HH:MM by convention); anything else is left untouched
+    private static LocalTime parseTime(String s) {
+        if (s == null || s.isBlank()) return null;
+        try {
+            return LocalTime.parse(s.trim(), DateTimeFormatter.ofPattern("H:mm"));
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    // great-circle distance, so detours can be turned into minutes
+    private static double meters(Stop a, Stop b) {
+        double dLat = Math.toRadians(b.getLatitude() - a.getLatitude());
+        double dLon = Math.toRadians(b.getLongitude() - a.getLongitude());
+        double h = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(a.getLatitude())) * Math.cos(Math.toRadians(b.getLatitude()))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * 6371000.0 * Math.asin(Math.sqrt(h));
+    }
+}
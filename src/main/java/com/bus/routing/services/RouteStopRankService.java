@@ -0,0 +1,219 @@
+package com.bus.routing.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bus.routing.models.RouteStop;
+import com.bus.routing.repositories.RouteRepository;
+import com.bus.routing.repositories.RouteStopRepository;
+
+/*
+ * Stops are ordered by a sparse rank instead of a dense 1..n number, so putting a stop
+ * somewhere new only writes that stop: it gets a rank halfway between its new neighbours.
+ * Positions (RouteStop.stopOrder) are computed from the ranks when a route is read.
+ *
+ * When two neighbours end up with no rank between them, the route is renumbered with
+ * fresh gaps; that happens inline if a write needs it right now, and in the background
+ * once gaps get small, so it rarely lands on a request.
+ */
+@Service
+public class RouteStopRankService {
+
+    // Spacing between neighbours after a rebalance (about 10 halvings before it runs out)
+    static final long GAP = 1024;
+
+    // Below this spacing a background rebalance is queued
+    static final long LOW_GAP = 8;
+
+    // stop_order used to be an INT column; keep ranks inside it so existing schemas keep working
+    static final long MAX_RANK = Integer.MAX_VALUE;
+
+    private final RouteRepository routeRepository;
+    private final RouteStopRepository routeStopRepository;
+    private final RouteGeometryService routeGeometryService;
+    private final TaskExecutor taskExecutor;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Set<Long> pendingRebalances = ConcurrentHashMap.newKeySet();
+
+    public RouteStopRankService(
+            RouteRepository routeRepository,
+            RouteStopRepository routeStopRepository,
+            RouteGeometryService routeGeometryService,
+            TaskExecutor taskExecutor,
+            PlatformTransactionManager transactionManager) {
+        this.routeRepository = routeRepository;
+        this.routeStopRepository = routeStopRepository;
+        this.routeGeometryService = routeGeometryService;
+        this.taskExecutor = taskExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Rank for the stops created in order 1..n on a new route (merge, publish)
+    public static long initialRank(int position) {
+        return position * GAP;
+    }
+
+    /*
+     * Sets a stop's pickup time and/or moves it to a 1-based position among its route's stops
+     * (clamped to the route), in one transaction. A move writes only the moved row, unless the
+     * route has to be rebalanced first. The returned stop has stopOrder set to its position.
+     */
+    public RouteStop updateRouteStop(Long routeStopId, Integer position, String pickupTime) {
+        if (position == null) {
+            return transactionTemplate.execute(tx -> {
+                RouteStop rs = routeStopRepository.findById(routeStopId)
+                        .orElseThrow(() -> new IllegalArgumentException("RouteStop not found: " + routeStopId));
+                if (pickupTime != null) {
+                    rs.setPickupTime(pickupTime);
+                    rs = routeStopRepository.save(rs);
+                }
+                rs.setStopOrder(positionOf(rs));
+                return rs;
+            });
+        }
+
+        // Looked up before the transaction starts, so the first read inside it is the route lock
+        // and the stops read after it include whatever the previous lock holder committed.
+        Long routeId = routeStopRepository.findRouteIdById(routeStopId)
+                .orElseThrow(() -> new IllegalArgumentException("RouteStop not found: " + routeStopId));
+
+        return transactionTemplate.execute(tx -> {
+            routeRepository.findWithLockById(routeId);
+
+            RouteStop moving = null;
+            List<RouteStop> others = new ArrayList<>();
+            int currentIndex = -1;
+            // Stop is an eager @ManyToOne; without the graph every stop costs a SELECT of its own
+            for (RouteStop rs : routeStopRepository.findWithStopByRouteIdOrderByStopOrderAsc(routeId)) {
+                if (rs.getId().equals(routeStopId)) {
+                    moving = rs;
+                    currentIndex = others.size();
+                } else {
+                    others.add(rs);
+                }
+            }
+            if (moving == null) {
+                throw new IllegalArgumentException("RouteStop not found: " + routeStopId);
+            }
+
+            if (pickupTime != null) {
+                moving.setPickupTime(pickupTime);
+            }
+
+            int index = Math.max(0, Math.min(others.size(), position - 1));
+            boolean moved = index != currentIndex;
+            if (moved) {
+                moving.setRank(rankAt(routeId, others, index));
+            }
+            if (moved || pickupTime != null) {
+                moving = routeStopRepository.save(moving);
+            }
+            moving.setStopOrder(index + 1);
+
+            if (moved) {
+                routeGeometryService.rebuild(routeId);
+            }
+            return moving;
+        });
+    }
+
+    // 1-based position of a single stop without loading the whole route (ties go by id, as on read)
+    private int positionOf(RouteStop rs) {
+        return (int) routeStopRepository.countBefore(rs.getRoute().getId(), rs.getRank(), rs.getId()) + 1;
+    }
+
+    /*
+     * Rank that places a stop before others[index] (index == size appends).
+     * others must be the route's other stops in order, loaded in this transaction with the route locked.
+     */
+    @Transactional
+    public long rankAt(Long routeId, List<RouteStop> others, int index) {
+        long rank = between(others, index);
+        if (rank < 0) {
+            spread(others);
+            rank = between(others, index);
+        }
+
+        long prev = index > 0 ? others.get(index - 1).getRank() : 0;
+        long next = index < others.size() ? others.get(index).getRank() : rank + GAP;
+        if (rank - prev < LOW_GAP || next - rank < LOW_GAP) {
+            rebalanceAfterCommit(routeId);
+        }
+        return rank;
+    }
+
+    // Renumber a route with even gaps, keeping its current order
+    @Transactional
+    public void rebalance(Long routeId) {
+        routeRepository.findWithLockById(routeId);
+        spread(routeStopRepository.findWithStopByRouteIdOrderByStopOrderAsc(routeId));
+    }
+
+    // -1 when there is no free rank at that spot
+    static long between(List<RouteStop> others, int index) {
+        long prev = index > 0 ? others.get(index - 1).getRank() : 0;
+
+        if (index == others.size()) {
+            return (prev + GAP <= MAX_RANK) ? prev + GAP : -1;
+        }
+
+        long next = others.get(index).getRank();
+        return (next - prev > 1) ? prev + (next - prev) / 2 : -1;
+    }
+
+    // Only rows whose rank actually changes are written
+    private void spread(List<RouteStop> ordered) {
+        List<RouteStop> changed = new ArrayList<>();
+        for (int i = 0; i < ordered.size(); i++) {
+            RouteStop rs = ordered.get(i);
+            long rank = initialRank(i + 1);
+            if (rs.getRank() != rank) {
+                rs.setRank(rank);
+                changed.add(rs);
+            }
+        }
+        routeStopRepository.saveAll(changed);
+    }
+
+    private void rebalanceAfterCommit(Long routeId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive() || !pendingRebalances.add(routeId)) {
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    taskExecutor.execute(() -> {
+                        try {
+                            transactionTemplate.executeWithoutResult(tx -> rebalance(routeId));
+                        } finally {
+                            pendingRebalances.remove(routeId);
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    // Executor full or shut down: the next write that leaves a small gap queues it again
+                    pendingRebalances.remove(routeId);
+                }
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    pendingRebalances.remove(routeId);
+                }
+            }
+        });
+    }
+}
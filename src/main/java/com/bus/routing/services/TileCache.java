@@ -0,0 +1,137 @@
+package com.bus.routing.services;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// In-memory LRU of rendered vector tiles, bounded by total bytes (tiles.cache.max-bytes).
+// Entries are dropped by tile coverage when stops or route lines inside them change.
+@Component
+public class TileCache {
+
+    public static class Tile {
+        public final byte[] data;
+        public final String etag;
+
+        Tile(byte[] data, String etag) {
+            this.data = data;
+            this.etag = etag;
+        }
+    }
+
+    private final long maxBytes;
+    private final LinkedHashMap<Long, Tile> tiles = new LinkedHashMap<>(256, 0.75f, true);
+    private long bytes;
+
+    // Bumped on every invalidation. A tile rendered while data was changing is not cached.
+    private long generation;
+
+    public TileCache(@Value("${tiles.cache.max-bytes:67108864}") long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public synchronized Tile get(long key) {
+        return tiles.get(key);
+    }
+
+    public synchronized long generation() {
+        return generation;
+    }
+
+    public synchronized void put(long key, Tile tile, long renderedAtGeneration) {
+        if (renderedAtGeneration != generation || tile.data.length > maxBytes) {
+            return;
+        }
+
+        Tile old = tiles.put(key, tile);
+        if (old != null) bytes -= old.data.length;
+        bytes += tile.data.length;
+
+        Iterator<Map.Entry<Long, Tile>> it = tiles.entrySet().iterator();
+        while (bytes > maxBytes && it.hasNext()) {
+            bytes -= it.next().getValue().data.length;
+            it.remove();
+        }
+    }
+
+    // Drop every cached tile that covers the box. When called inside a transaction this runs
+    // again after commit, so a tile rendered from the old rows in between doesn't stick around.
+    public void invalidate(double minLat, double minLon, double maxLat, double maxLon) {
+        evict(minLat, minLon, maxLat, maxLon);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(minLat, minLon, maxLat, maxLon);
+                }
+            });
+        }
+    }
+
+    public void invalidatePoint(double lat, double lon) {
+        invalidate(lat, lon, lat, lon);
+    }
+
+    private void evict(double minLat, double minLon, double maxLat, double maxLon) {
+        // Tile ranges covering the box at every zoom, worked out before taking the lock
+        int[][] ranges = new int[TileMath.MAX_ZOOM + 1][];
+        for (int z = 0; z <= TileMath.MAX_ZOOM; z++) {
+            ranges[z] = coveringTiles(z, minLat, minLon, maxLat, maxLon);
+        }
+
+        synchronized (this) {
+            generation++;
+            if (tiles.isEmpty()) return;
+
+            boolean scan = false;
+            for (int z = 0; z <= TileMath.MAX_ZOOM; z++) {
+                int[] r = ranges[z];
+                long count = (long) (r[2] - r[0] + 1) * (r[3] - r[1] + 1);
+                if (count > tiles.size()) {
+                    scan = true; // cheaper to check the cached keys than every covered tile
+                    continue;
+                }
+                for (int x = r[0]; x <= r[2]; x++) {
+                    for (int y = r[1]; y <= r[3]; y++) {
+                        Tile removed = tiles.remove(TileMath.key(z, x, y));
+                        if (removed != null) bytes -= removed.data.length;
+                    }
+                }
+            }
+
+            if (scan) {
+                Iterator<Map.Entry<Long, Tile>> it = tiles.entrySet().iterator();
+                while (it.hasNext()) {
+                    Map.Entry<Long, Tile> e = it.next();
+                    long key = e.getKey();
+                    int[] r = ranges[TileMath.zoomOf(key)];
+                    int x = TileMath.xOf(key);
+                    int y = TileMath.yOf(key);
+                    if (x >= r[0] && x <= r[2] && y >= r[1] && y <= r[3]) {
+                        bytes -= e.getValue().data.length;
+                        it.remove();
+                    }
+                }
+            }
+        }
+    }
+
+    // { minX, minY, maxX, maxY } of the tiles whose buffered area touches the box
+    static int[] coveringTiles(int z, double minLat, double minLon, double maxLat, double maxLon) {
+        int last = (1 << z) - 1;
+        int minX = (int) Math.ceil(TileMath.lonToX(minLon, z) - 1 - TileMath.BUFFER);
+        int maxX = (int) Math.floor(TileMath.lonToX(maxLon, z) + TileMath.BUFFER);
+        // y grows southwards
+        int minY = (int) Math.ceil(TileMath.latToY(maxLat, z) - 1 - TileMath.BUFFER);
+        int maxY = (int) Math.floor(TileMath.latToY(minLat, z) + TileMath.BUFFER);
+        return new int[] {
+            Math.max(0, minX), Math.max(0, minY), Math.min(last, maxX), Math.min(last, maxY)
+        };
+    }
+}
@@ -0,0 +1,53 @@
+package com.bus.routing.services;
+
+// Web Mercator (slippy map) tile math shared by the tile renderer and the tile cache
+final class TileMath {
+
+    static final int MAX_ZOOM = 22;
+
+    // Features this close to a tile edge (as a fraction of the tile) are also drawn in it,
+    // so markers and lines crossing the border are not cut off.
+    static final double BUFFER = 64.0 / 4096.0;
+
+    private TileMath() {}
+
+    static double lonToX(double lon, int z) {
+        return (lon + 180.0) / 360.0 * (1 << z);
+    }
+
+    static double latToY(double lat, int z) {
+        double rad = Math.toRadians(Math.max(-85.05112878, Math.min(85.05112878, lat)));
+        return (1 - Math.log(Math.tan(rad) + 1 / Math.cos(rad)) / Math.PI) / 2 * (1 << z);
+    }
+
+    static double xToLon(double x, int z) {
+        return x / (1 << z) * 360.0 - 180.0;
+    }
+
+    static double yToLat(double y, int z) {
+        double n = Math.PI * (1 - 2 * y / (1 << z));
+        return Math.toDegrees(Math.atan(Math.sinh(n)));
+    }
+
+    static boolean isValid(int z, int x, int y) {
+        return z >= 0 && z <= MAX_ZOOM && x >= 0 && y >= 0 && x < (1 << z) && y < (1 << z);
+    }
+
+    // { minLat, minLon, maxLat, maxLon } of the tile including its buffer
+    static double[] bufferedBounds(int z, int x, int y) {
+        return new double[] {
+            yToLat(y + 1 + BUFFER, z),
+            xToLon(x - BUFFER, z),
+            yToLat(y - BUFFER, z),
+            xToLon(x + 1 + BUFFER, z)
+        };
+    }
+
+    static long key(int z, int x, int y) {
+        return ((long) z << 58) | ((long) x << 29) | y;
+    }
+
+    static int zoomOf(long key) { return (int) (key >>> 58); }
+    static int xOf(long key) { return (int) ((key >>> 29) & ((1L << 29) - 1)); }
+    static int yOf(long key) { return (int) (key & ((1L << 29) - 1)); }
+}
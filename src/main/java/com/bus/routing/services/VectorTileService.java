@@ -0,0 +1,196 @@
+package com.bus.routing.services;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.bus.routing.models.Route;
+import com.bus.routing.models.RouteGeometry;
+import com.bus.routing.models.Stop;
+import com.bus.routing.repositories.RouteGeometryRepository;
+import com.bus.routing.repositories.RouteRepository;
+import com.bus.routing.repositories.StopRepository;
+
+// Renders Mapbox Vector Tiles of the published network: a "routes" layer of route lines
+// and, once zoomed in far enough, a "stops" layer of stop points.
+@Service
+public class VectorTileService {
+
+    // Below this zoom a tile would hold too many stops to be useful, so only lines are drawn
+    static final int STOPS_MIN_ZOOM = 11;
+
+    // Lines are clipped this far outside the tile (same buffer stops get), in tile units
+    private static final double CLIP_MARGIN = TileMath.BUFFER * MvtEncoder.EXTENT;
+
+    private final StopRepository stopRepository;
+    private final RouteRepository routeRepository;
+    private final RouteGeometryRepository routeGeometryRepository;
+    private final TileCache tileCache;
+
+    public VectorTileService(
+            StopRepository stopRepository,
+            RouteRepository routeRepository,
+            RouteGeometryRepository routeGeometryRepository,
+            TileCache tileCache) {
+        this.stopRepository = stopRepository;
+        this.routeRepository = routeRepository;
+        this.routeGeometryRepository = routeGeometryRepository;
+        this.tileCache = tileCache;
+    }
+
+    @Transactional(readOnly = true)
+    public TileCache.Tile getTile(int z, int x, int y) {
+        if (!TileMath.isValid(z, x, y)) {
+            throw new IllegalArgumentException("Invalid tile: " + z + "/" + x + "/" + y);
+        }
+
+        long key = TileMath.key(z, x, y);
+        TileCache.Tile cached = tileCache.get(key);
+        if (cached != null) return cached;
+
+        long generation = tileCache.generation();
+        byte[] data = render(z, x, y);
+        TileCache.Tile tile = new TileCache.Tile(data, etag(data));
+        tileCache.put(key, tile, generation);
+        return tile;
+    }
+
+    private byte[] render(int z, int x, int y) {
+        double[] b = TileMath.bufferedBounds(z, x, y);
+        double minLat = b[0], minLon = b[1], maxLat = b[2], maxLon = b[3];
+
+        MvtEncoder.Layer routesLayer = new MvtEncoder.Layer("routes");
+        List<RouteGeometry> lines = routeGeometryRepository.findPublishedInBox(
+                RouteGeometryService.levelFor(z), minLat, maxLat, minLon, maxLon);
+
+        if (!lines.isEmpty()) {
+            Map<Long, String> routeNumbers = new HashMap<>();
+            for (Route r : routeRepository.findAllById(lines.stream().map(RouteGeometry::getRouteId).toList())) {
+                routeNumbers.put(r.getId(), r.getRouteNumber());
+            }
+
+            for (RouteGeometry g : lines) {
+                List<double[]> points = RouteGeometryService.decode(g.getPolyline());
+                if (points.size() < 2) continue;
+
+                double[] xs = new double[points.size()];
+                double[] ys = new double[points.size()];
+                for (int i = 0; i < points.size(); i++) {
+                    xs[i] = tileX(points.get(i)[1], z, x);
+                    ys[i] = tileY(points.get(i)[0], z, y);
+                }
+
+                List<int[]> parts = clip(xs, ys, -CLIP_MARGIN, MvtEncoder.EXTENT + CLIP_MARGIN);
+                if (parts.isEmpty()) continue;
+
+                Map<String, Object> attrs = new LinkedHashMap<>();
+                attrs.put("routeId", g.getRouteId());
+                attrs.put("routeNumber", routeNumbers.get(g.getRouteId()));
+                routesLayer.addLines(g.getRouteId(), parts, attrs);
+            }
+        }
+
+        MvtEncoder.Layer stopsLayer = new MvtEncoder.Layer("stops");
+        if (z >= STOPS_MIN_ZOOM) {
+            for (Stop s : stopRepository.findByLatitudeBetweenAndLongitudeBetween(minLat, maxLat, minLon, maxLon)) {
+                Map<String, Object> attrs = new LinkedHashMap<>();
+                attrs.put("stopId", s.getId());
+                attrs.put("name", s.getName());
+                stopsLayer.addPoint(s.getId(),
+                        (int) Math.round(tileX(s.getLongitude(), z, x)),
+                        (int) Math.round(tileY(s.getLatitude(), z, y)),
+                        attrs);
+            }
+        }
+
+        return MvtEncoder.encode(List.of(routesLayer, stopsLayer));
+    }
+
+    private static double tileX(double lon, int z, int x) {
+        return (TileMath.lonToX(lon, z) - x) * MvtEncoder.EXTENT;
+    }
+
+    private static double tileY(double lat, int z, int y) {
+        return (TileMath.latToY(lat, z) - y) * MvtEncoder.EXTENT;
+    }
+
+    /*
+     * Clips a line (tile coordinates) to the square [min, max] segment by segment (Liang-Barsky).
+     * Returns the visible parts as x0, y0, x1, y1, ... arrays; a line that leaves and re-enters
+     * the tile gives several parts. Everything returned is inside the box, so rounding can't overflow.
+     */
+    static List<int[]> clip(double[] xs, double[] ys, double min, double max) {
+        List<int[]> parts = new ArrayList<>();
+        List<Integer> current = null;
+
+        for (int i = 0; i + 1 < xs.length; i++) {
+            double x0 = xs[i], y0 = ys[i];
+            double dx = xs[i + 1] - x0, dy = ys[i + 1] - y0;
+
+            double[] t = { 0.0, 1.0 };
+            if (!clipEdge(-dx, x0 - min, t) || !clipEdge(dx, max - x0, t)
+                    || !clipEdge(-dy, y0 - min, t) || !clipEdge(dy, max - y0, t)) {
+                current = finish(parts, current); // segment entirely outside
+                continue;
+            }
+
+            // a segment that starts clipped can't continue the previous part
+            if (t[0] > 0.0) {
+                current = finish(parts, current);
+            }
+            if (current == null) {
+                current = new ArrayList<>();
+                current.add((int) Math.round(x0 + t[0] * dx));
+                current.add((int) Math.round(y0 + t[0] * dy));
+            }
+            current.add((int) Math.round(x0 + t[1] * dx));
+            current.add((int) Math.round(y0 + t[1] * dy));
+
+            if (t[1] < 1.0) {
+                current = finish(parts, current); // leaves the box here
+            }
+        }
+        finish(parts, current);
+        return parts;
+    }
+
+    // One Liang-Barsky boundary test; narrows t = { tEnter, tLeave }, false when nothing is left
+    private static boolean clipEdge(double p, double q, double[] t) {
+        if (p == 0) {
+            return q >= 0;
+        }
+        double r = q / p;
+        if (p < 0) {
+            if (r > t[1]) return false;
+            if (r > t[0]) t[0] = r;
+        } else {
+            if (r < t[0]) return false;
+            if (r < t[1]) t[1] = r;
+        }
+        return true;
+    }
+
+    private static List<Integer> finish(List<int[]> parts, List<Integer> current) {
+        if (current != null && current.size() >= 4) {
+            parts.add(current.stream().mapToInt(Integer::intValue).toArray());
+        }
+        return null;
+    }
+
+    private static String etag(byte[] data) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
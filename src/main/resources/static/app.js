@@ -63,6 +63,9 @@ const ROUTING = {
   snapTimeoutMs: 1200,
   snapWarnMeters: 30,
 
+  // Straight-line fallback uses GET /routes/{id}/geometry instead of raw stop coords
+  serverGeometry: true,
+
   // Reverse geocode (address autofill)
   reverseGeocodeEnabled: true,
   reverseGeocodeMinMoveMeters: 8,  // ignore tiny click jitter
@@ -107,27 +110,15 @@ function renumberStopOrderInputsInDOM() {
   });
 }
 
-function getStopOrderPatchPayloadFromDOM() {
-  // Returns [{ routeStopId, stopOrder }, ...] in DOM order
-  const rows = Array.from(detailsEl.querySelectorAll('tr[data-routestop-id]'));
-  return rows.map((tr, idx) => ({
-    routeStopId: Number(tr.getAttribute("data-routestop-id")),
-    stopOrder: idx + 1,
-  })).filter(x => Number.isFinite(x.routeStopId));
-}
-
-async function persistStopOrderFromDOM() {
+async function persistMovedStopFromDOM(routeStopId) {
   if (!selectedRouteId) return;
 
-  const updates = getStopOrderPatchPayloadFromDOM();
-  if (updates.length === 0) return;
+  const rows = Array.from(detailsEl.querySelectorAll('tr[data-routestop-id]'));
+  const idx = rows.findIndex((tr) => tr.getAttribute("data-routestop-id") === String(routeStopId));
+  if (idx < 0) return;
 
-  // Patch in parallel (fine for small routes)
-  await Promise.all(
-    updates.map((u) =>
-      apiPatch(`/route-stops/${u.routeStopId}`, { stopOrder: u.stopOrder })
-    )
-  );
+  // The server keeps the other stops in place, so only the moved stop is sent
+  await apiPatch(`/route-stops/${routeStopId}`, { stopOrder: idx + 1 });
 }
 
 
@@ -399,6 +390,18 @@ function ensureMap() {
     leafletMarkersLayer = L.layerGroup().addTo(leafletMap);
     leafletMap.setView([34.0522, -118.2437], 10);
 
+    // Whole network overview from /tiles (only the visible tiles are fetched)
+    if (L.vectorGrid && L.vectorGrid.protobuf) {
+      const networkLayer = L.vectorGrid.protobuf("/tiles/{z}/{x}/{y}.mvt", {
+        maxNativeZoom: 18,
+        vectorTileLayerStyles: {
+          routes: { color: "#1565c0", weight: 2, opacity: 0.5 },
+          stops: { radius: 3, fill: true, fillOpacity: 0.8, color: "#555", weight: 1 },
+        },
+      });
+      L.control.layers(null, { "Network overview": networkLayer }).addTo(leafletMap);
+    }
+
     // Click-to-add handler (install ONCE)
     if (!mapClickHandlerInstalled) {
       mapClickHandlerInstalled = true;
@@ -478,8 +481,43 @@ function setMapStatus(msg, isError = false) {
   mapStatusEl.style.color = isError ? "#b00020" : "#2e7d32";
 }
 
-function drawFallbackLine(map, stopsArr) {
-  const latlngs = stopsArr.map((s) => [s.latitude, s.longitude]);
+// Google encoded polyline (precision 5) -> [[lat, lon], ...]
+function decodePolyline(str) {
+  const points = [];
+  let index = 0, lat = 0, lon = 0;
+  while (index < str.length) {
+    for (const axis of [0, 1]) {
+      let result = 0, shift = 0, b;
+      do {
+        b = str.charCodeAt(index++) - 63;
+        result |= (b & 0x1f) << shift;
+        shift += 5;
+      } while (b >= 0x20);
+      const delta = result & 1 ? ~(result >> 1) : result >> 1;
+      if (axis === 0) lat += delta;
+      else lon += delta;
+    }
+    points.push([lat / 1e5, lon / 1e5]);
+  }
+  return points;
+}
+
+async function drawFallbackLine(map, stopsArr, seq) {
+  let latlngs = stopsArr.map((s) => [s.latitude, s.longitude]);
+
+  // Use the server's precomputed line (simplified for the zoom we'll end up at),
+  // unless stops were snapped on the client and no longer match it.
+  if (ROUTING.serverGeometry && selectedRouteId && !ROUTING.snapStopsToRoad) {
+    const zoom = map.getBoundsZoom(L.latLngBounds(latlngs));
+    try {
+      const g = await apiGet(`/routes/${selectedRouteId}/geometry?zoom=${zoom}`);
+      if (g?.polyline) latlngs = decodePolyline(g.polyline);
+    } catch {
+      // keep the straight line through the stops
+    }
+    if (seq !== undefined && seq !== mapRenderSeq) return;
+  }
+
   if (leafletLine) {
     leafletLine.remove();
     leafletLine = null;
@@ -555,7 +593,7 @@ async function renderRouteMap(stops) {
 
   if (!(L.Routing && L.Routing.control && L.Routing.osrmv1)) {
     setMapStatus("Routing plugin missing — showing straight line.", true);
-    drawFallbackLine(map, used);
+    drawFallbackLine(map, used, mySeq);
     return;
   }
 
@@ -601,7 +639,7 @@ async function renderRouteMap(stops) {
       leafletRoutingControl = null;
 
       setMapStatus("Routing failed — showing straight line.", true);
-      drawFallbackLine(map, used);
+      drawFallbackLine(map, used, mySeq);
     })
   );
 }
@@ -1070,7 +1108,7 @@ detailsEl.addEventListener("drop", async (e) => {
   // Save to server
   try {
     detailsStatusEl.textContent = "Saving new stop order...";
-    await persistStopOrderFromDOM();
+    await persistMovedStopFromDOM(fromId);
     detailsStatusEl.textContent = "Order saved.";
     await loadRouteDetails(selectedRouteId); // refresh + redraw map
   } catch (err) {
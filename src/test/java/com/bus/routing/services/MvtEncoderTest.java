@@ -0,0 +1,161 @@
+package com.bus.routing.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class MvtEncoderTest {
+
+    // Command integers: id in the low 3 bits, count above (MoveTo = 1, LineTo = 2)
+    private static final long MOVE_TO_1 = 9;
+    private static final long LINE_TO_1 = 10;
+    private static final long LINE_TO_2 = 18;
+
+    @Test
+    void pointIsOneMoveTo() {
+        MvtEncoder.Layer layer = new MvtEncoder.Layer("stops");
+        layer.addPoint(1, 100, -3, Map.of());
+
+        assertThat(geometry(onlyFeature(layer))).containsExactly(MOVE_TO_1, 200L, 5L);
+    }
+
+    @Test
+    void partsCarryTheCursorFromTheEndOfThePreviousPart() {
+        MvtEncoder.Layer layer = new MvtEncoder.Layer("routes");
+        layer.addLines(1, List.of(
+                new int[] { 0, 0, 10, 0, 10, 10 },
+                new int[] { 20, 20, 30, 20 }), Map.of());
+
+        assertThat(geometry(onlyFeature(layer))).containsExactly(
+                MOVE_TO_1, 0L, 0L, LINE_TO_2, 20L, 0L, 0L, 20L,
+                // second MoveTo is relative to (10, 10), where the first part ended
+                MOVE_TO_1, 20L, 20L, LINE_TO_1, 20L, 0L);
+    }
+
+    @Test
+    void repeatedPointsAndEmptyPartsAreDropped() {
+        MvtEncoder.Layer layer = new MvtEncoder.Layer("routes");
+        layer.addLines(1, List.of(
+                new int[] { 0, 0, 10, 0, 10, 0 },
+                new int[] { 5, 5, 5, 5 },
+                new int[] { 20, 0, 30, 0 }), Map.of());
+
+        assertThat(geometry(onlyFeature(layer))).containsExactly(
+                MOVE_TO_1, 0L, 0L, LINE_TO_1, 20L, 0L,
+                MOVE_TO_1, 20L, 0L, LINE_TO_1, 20L, 0L);
+    }
+
+    @Test
+    void layerWithNothingDrawnIsLeftOut() {
+        MvtEncoder.Layer layer = new MvtEncoder.Layer("routes");
+        layer.addLines(1, List.<int[]>of(new int[] { 5, 5, 5, 5 }), Map.of());
+
+        assertThat(layer.isEmpty()).isTrue();
+        assertThat(MvtEncoder.encode(List.of(layer))).isEmpty();
+    }
+
+    @Test
+    void keysAndValuesAreSharedBetweenFeatures() {
+        Map<String, Object> attrs = new LinkedHashMap<>();
+        attrs.put("routeNumber", "12");
+        attrs.put("routeId", 7L);
+
+        MvtEncoder.Layer layer = new MvtEncoder.Layer("routes");
+        layer.addLines(1, List.<int[]>of(new int[] { 0, 0, 1, 1 }), attrs);
+        layer.addLines(2, List.<int[]>of(new int[] { 0, 0, 2, 2 }), attrs);
+
+        byte[] encoded = onlyLayer(layer);
+        assertThat(strings(messages(encoded, 1))).containsExactly("routes");
+        assertThat(strings(messages(encoded, 3))).containsExactly("routeNumber", "routeId");
+        assertThat(messages(encoded, 4)).hasSize(2);
+        assertThat(messages(encoded, 2)).hasSize(2);
+        assertThat(varints(messages(messages(encoded, 2).get(1), 2).get(0))).containsExactly(0L, 0L, 1L, 1L);
+        assertThat(varintField(encoded, 5)).isEqualTo(MvtEncoder.EXTENT);
+    }
+
+    private static byte[] onlyLayer(MvtEncoder.Layer layer) {
+        List<byte[]> layers = messages(MvtEncoder.encode(List.of(layer)), 3);
+        assertThat(layers).hasSize(1);
+        return layers.get(0);
+    }
+
+    private static byte[] onlyFeature(MvtEncoder.Layer layer) {
+        List<byte[]> features = messages(onlyLayer(layer), 2);
+        assertThat(features).hasSize(1);
+        return features.get(0);
+    }
+
+    private static List<Long> geometry(byte[] feature) {
+        return varints(messages(feature, 4).get(0));
+    }
+
+    // --- just enough protobuf reading for the fields MvtEncoder writes ---
+
+    // Length-delimited fields with this number, in order
+    private static List<byte[]> messages(byte[] msg, int field) {
+        List<byte[]> found = new ArrayList<>();
+        int[] pos = { 0 };
+        while (pos[0] < msg.length) {
+            long tag = readVarint(msg, pos);
+            if ((tag & 7) == 0) {
+                readVarint(msg, pos);
+                continue;
+            }
+            int length = (int) readVarint(msg, pos);
+            if (tag >>> 3 == field) {
+                found.add(Arrays.copyOfRange(msg, pos[0], pos[0] + length));
+            }
+            pos[0] += length;
+        }
+        return found;
+    }
+
+    // Value of the first varint field with this number
+    private static long varintField(byte[] msg, int field) {
+        int[] pos = { 0 };
+        while (pos[0] < msg.length) {
+            long tag = readVarint(msg, pos);
+            if ((tag & 7) == 0) {
+                long value = readVarint(msg, pos);
+                if (tag >>> 3 == field) return value;
+            } else {
+                int length = (int) readVarint(msg, pos);
+                pos[0] += length;
+            }
+        }
+        throw new AssertionError("field " + field + " not found");
+    }
+
+    // A packed run of varints
+    private static List<Long> varints(byte[] packed) {
+        List<Long> values = new ArrayList<>();
+        int[] pos = { 0 };
+        while (pos[0] < packed.length) {
+            values.add(readVarint(packed, pos));
+        }
+        return values;
+    }
+
+    private static long readVarint(byte[] b, int[] pos) {
+        long value = 0;
+        int shift = 0;
+        int next;
+        do {
+            next = b[pos[0]++] & 0xFF;
+            value |= (long) (next & 0x7F) << shift;
+            shift += 7;
+        } while ((next & 0x80) != 0);
+        return value;
+    }
+
+    private static List<String> strings(List<byte[]> bytes) {
+        return bytes.stream().map(b -> new String(b, StandardCharsets.UTF_8)).toList();
+    }
+}
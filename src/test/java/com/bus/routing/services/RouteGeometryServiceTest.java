@@ -0,0 +1,105 @@
+package com.bus.routing.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class RouteGeometryServiceTest {
+
+    // Example from Google's "Encoded Polyline Algorithm Format" documentation
+    private static final List<double[]> GOOGLE_POINTS = List.of(
+            new double[] { 38.5, -120.2 },
+            new double[] { 40.7, -120.95 },
+            new double[] { 43.252, -126.453 });
+    private static final String GOOGLE_POLYLINE = "_p~iF~ps|U_ulLnnqC_mqNvxq`@";
+
+    // --- encode / decode ---
+
+    @Test
+    void encodeMatchesGooglesExample() {
+        assertThat(RouteGeometryService.encode(GOOGLE_POINTS)).isEqualTo(GOOGLE_POLYLINE);
+    }
+
+    @Test
+    void decodeMatchesGooglesExample() {
+        List<double[]> decoded = RouteGeometryService.decode(GOOGLE_POLYLINE);
+
+        assertThat(decoded).hasSize(GOOGLE_POINTS.size());
+        for (int i = 0; i < decoded.size(); i++) {
+            assertThat(decoded.get(i)[0]).isCloseTo(GOOGLE_POINTS.get(i)[0], within(1e-9));
+            assertThat(decoded.get(i)[1]).isCloseTo(GOOGLE_POINTS.get(i)[1], within(1e-9));
+        }
+    }
+
+    @Test
+    void roundTripKeepsFivePlaces() {
+        List<double[]> points = List.of(
+                new double[] { 51.507351, -0.127758 },
+                new double[] { -33.868820, 151.209290 },
+                new double[] { 0, 0 });
+
+        List<double[]> decoded = RouteGeometryService.decode(RouteGeometryService.encode(points));
+
+        assertThat(decoded).hasSize(points.size());
+        for (int i = 0; i < decoded.size(); i++) {
+            assertThat(decoded.get(i)[0]).isCloseTo(points.get(i)[0], within(0.5e-5));
+            assertThat(decoded.get(i)[1]).isCloseTo(points.get(i)[1], within(0.5e-5));
+        }
+    }
+
+    @Test
+    void noPointsEncodeToAnEmptyString() {
+        assertThat(RouteGeometryService.encode(List.of())).isEmpty();
+        assertThat(RouteGeometryService.decode("")).isEmpty();
+    }
+
+    // --- simplify ---
+
+    @Test
+    void collinearPointsCollapseToTheEndpoints() {
+        List<double[]> line = List.of(
+                new double[] { 0, 0 },
+                new double[] { 1, 1 },
+                new double[] { 2, 2 },
+                new double[] { 3, 3 });
+
+        List<double[]> simplified = RouteGeometryService.simplify(line, 0.001);
+
+        assertThat(simplified).containsExactly(line.get(0), line.get(3));
+    }
+
+    @Test
+    void pointFartherThanTheToleranceIsKept() {
+        List<double[]> line = List.of(
+                new double[] { 0, 0 },
+                new double[] { 1, 0.26 },
+                new double[] { 2, 0.5 },
+                new double[] { 3, 0 },
+                new double[] { 4, 0 });
+
+        List<double[]> simplified = RouteGeometryService.simplify(line, 0.1);
+
+        assertThat(simplified).containsExactly(line.get(0), line.get(2), line.get(3), line.get(4));
+    }
+
+    @Test
+    void shortLinesAreLeftAlone() {
+        List<double[]> line = List.of(new double[] { 0, 0 }, new double[] { 5, 5 });
+
+        assertThat(RouteGeometryService.simplify(line, 10)).isSameAs(line);
+    }
+
+    // --- zoom levels ---
+
+    @Test
+    void levelForPicksTheFirstPrecomputedLevelAtOrAboveTheZoom() {
+        assertThat(RouteGeometryService.levelFor(null)).isEqualTo(18);
+        assertThat(RouteGeometryService.levelFor(3)).isEqualTo(6);
+        assertThat(RouteGeometryService.levelFor(9)).isEqualTo(9);
+        assertThat(RouteGeometryService.levelFor(10)).isEqualTo(12);
+        assertThat(RouteGeometryService.levelFor(21)).isEqualTo(18);
+    }
+}
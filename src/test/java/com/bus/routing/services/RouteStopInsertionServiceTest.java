@@ -0,0 +1,66 @@
+package com.bus.routing.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.bus.routing.models.RouteStop;
+import com.bus.routing.models.Stop;
+
+class RouteStopInsertionServiceTest {
+
+    // Stops along the equator at longitudes 0, 0.01 and 0.02 (about 1.1 km apart)
+    private final List<RouteStop> route = route(0, 0.01, 0.02);
+
+    @Test
+    void cheapestPositionOnEmptyRouteIsFirst() {
+        assertThat(RouteStopInsertionService.cheapestPosition(List.of(), stop(0.01))).isZero();
+    }
+
+    @Test
+    void cheapestPositionBetweenNeighbours() {
+        assertThat(RouteStopInsertionService.cheapestPosition(route, stop(0.015))).isEqualTo(2);
+        assertThat(RouteStopInsertionService.cheapestPosition(route, stop(0.005))).isEqualTo(1);
+    }
+
+    @Test
+    void cheapestPositionBeforeTheFirstStop() {
+        assertThat(RouteStopInsertionService.cheapestPosition(route, stop(-0.01))).isZero();
+    }
+
+    @Test
+    void cheapestPositionAfterTheLastStop() {
+        assertThat(RouteStopInsertionService.cheapestPosition(route, stop(0.03))).isEqualTo(3);
+    }
+
+    @Test
+    void shiftStaysWithinTheDay() {
+        assertThat(RouteStopInsertionService.shift(LocalTime.of(23, 50), 5)).isEqualTo(LocalTime.of(23, 55));
+        assertThatThrownBy(() -> RouteStopInsertionService.shift(LocalTime.of(23, 50), 15))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RouteStopInsertionService.shift(LocalTime.of(0, 5), -10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static List<RouteStop> route(double... longitudes) {
+        List<RouteStop> route = new ArrayList<>();
+        for (double lon : longitudes) {
+            RouteStop rs = new RouteStop();
+            rs.setStop(stop(lon));
+            route.add(rs);
+        }
+        return route;
+    }
+
+    private static Stop stop(double longitude) {
+        Stop stop = new Stop();
+        stop.setLatitude(0);
+        stop.setLongitude(longitude);
+        return stop;
+    }
+}
@@ -0,0 +1,223 @@
+package com.bus.routing.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.bus.routing.models.Route;
+import com.bus.routing.models.RouteStop;
+import com.bus.routing.repositories.RouteRepository;
+import com.bus.routing.repositories.RouteStopRepository;
+
+class RouteStopRankServiceTest {
+
+    private static final Long ROUTE_ID = 1L;
+
+    private RouteRepository routeRepository;
+    private RouteStopRepository routeStopRepository;
+    private RouteGeometryService routeGeometryService;
+    private RouteStopRankService service;
+    private Route route;
+
+    @BeforeEach
+    void setUp() {
+        routeRepository = mock(RouteRepository.class);
+        routeStopRepository = mock(RouteStopRepository.class);
+        routeGeometryService = mock(RouteGeometryService.class);
+        service = new RouteStopRankService(routeRepository, routeStopRepository, routeGeometryService,
+                mock(TaskExecutor.class), mock(PlatformTransactionManager.class));
+
+        route = new Route();
+        ReflectionTestUtils.setField(route, "id", ROUTE_ID);
+        when(routeRepository.findWithLockById(ROUTE_ID)).thenReturn(Optional.of(route));
+        when(routeStopRepository.save(any(RouteStop.class))).thenAnswer(inv -> inv.getArgument(0));
+    }
+
+    // --- between ---
+
+    @Test
+    void betweenAppendsOneGapAfterTheLastStop() {
+        assertThat(RouteStopRankService.between(List.of(), 0)).isEqualTo(RouteStopRankService.GAP);
+        assertThat(RouteStopRankService.between(stops(1024, 2048), 2)).isEqualTo(2048 + RouteStopRankService.GAP);
+    }
+
+    @Test
+    void betweenTakesTheMidpointOfItsNeighbours() {
+        assertThat(RouteStopRankService.between(stops(1024, 2048), 1)).isEqualTo(1536);
+        assertThat(RouteStopRankService.between(stops(1024, 2048), 0)).isEqualTo(512);
+    }
+
+    @Test
+    void betweenReportsNoRoom() {
+        assertThat(RouteStopRankService.between(stops(1, 2), 1)).isEqualTo(-1);
+        assertThat(RouteStopRankService.between(stops(1, 2), 0)).isEqualTo(-1);
+        assertThat(RouteStopRankService.between(stops(5, 5), 1)).isEqualTo(-1);
+        assertThat(RouteStopRankService.between(stops(RouteStopRankService.MAX_RANK), 1)).isEqualTo(-1);
+    }
+
+    // --- rankAt / spread ---
+
+    @Test
+    void rankAtWritesNothingElseWhenThereIsRoom() {
+        List<RouteStop> others = stops(1024, 2048);
+
+        assertThat(service.rankAt(ROUTE_ID, others, 1)).isEqualTo(1536);
+        verify(routeStopRepository, never()).saveAll(anyIterable());
+    }
+
+    @Test
+    void rankAtSpreadsLegacyDenseRanksInline() {
+        List<RouteStop> others = stops(1, 2, 3);
+
+        long rank = service.rankAt(ROUTE_ID, others, 1);
+
+        assertThat(ranks(others)).containsExactly(1024L, 2048L, 3072L);
+        assertThat(rank).isEqualTo(1536);
+        verify(routeStopRepository).saveAll(others);
+    }
+
+    @Test
+    void rankAtSpreadsOnlyTheRowsThatChange() {
+        List<RouteStop> others = stops(1024, 1025, 3072);
+
+        long rank = service.rankAt(ROUTE_ID, others, 1);
+
+        assertThat(ranks(others)).containsExactly(1024L, 2048L, 3072L);
+        assertThat(rank).isEqualTo(1536);
+        verify(routeStopRepository).saveAll(List.of(others.get(1)));
+    }
+
+    @Test
+    void rankAtSpreadsWhenAppendingPastTheColumnLimit() {
+        List<RouteStop> others = stops(1024, RouteStopRankService.MAX_RANK);
+
+        assertThat(service.rankAt(ROUTE_ID, others, 2)).isEqualTo(3 * RouteStopRankService.GAP);
+        assertThat(ranks(others)).containsExactly(1024L, 2048L);
+    }
+
+    // --- updateRouteStop ---
+
+    @Test
+    void moveWritesOnlyTheMovedRow() {
+        givenRoute(stops(1024, 2048, 3072));
+
+        RouteStop moved = service.updateRouteStop(3L, 1, null);
+
+        assertThat(moved.getRank()).isEqualTo(512);
+        assertThat(moved.getStopOrder()).isEqualTo(1);
+        verify(routeStopRepository).save(moved);
+        verify(routeStopRepository, never()).saveAll(anyIterable());
+        verify(routeStopRepository, never()).findByRouteIdOrderByStopOrderAsc(any());
+        verify(routeGeometryService).rebuild(ROUTE_ID);
+    }
+
+    @Test
+    void moveClampsThePositionToTheRoute() {
+        givenRoute(stops(1024, 2048, 3072));
+        assertThat(service.updateRouteStop(2L, 0, null).getStopOrder()).isEqualTo(1);
+
+        givenRoute(stops(1024, 2048, 3072));
+        RouteStop last = service.updateRouteStop(1L, 99, null);
+        assertThat(last.getStopOrder()).isEqualTo(3);
+        assertThat(last.getRank()).isEqualTo(3072 + RouteStopRankService.GAP);
+    }
+
+    @Test
+    void moveToTheCurrentPositionWritesNothing() {
+        givenRoute(stops(1024, 2048, 3072));
+
+        RouteStop same = service.updateRouteStop(2L, 2, null);
+
+        assertThat(same.getRank()).isEqualTo(2048);
+        assertThat(same.getStopOrder()).isEqualTo(2);
+        verify(routeStopRepository, never()).save(any(RouteStop.class));
+        verify(routeGeometryService, never()).rebuild(any());
+    }
+
+    @Test
+    void moveAmongDuplicateRanksRebalancesInline() {
+        List<RouteStop> stops = stops(5, 5, 5);
+        givenRoute(stops);
+
+        RouteStop moved = service.updateRouteStop(3L, 2, null);
+
+        assertThat(ranks(stops)).containsExactly(1024L, 2048L, 1536L);
+        assertThat(moved.getStopOrder()).isEqualTo(2);
+        verify(routeStopRepository).saveAll(List.of(stops.get(0), stops.get(1)));
+    }
+
+    @Test
+    void pickupTimeAndMoveAreWrittenTogether() {
+        givenRoute(stops(1024, 2048, 3072));
+
+        RouteStop moved = service.updateRouteStop(1L, 3, "08:15");
+
+        assertThat(moved.getPickupTime()).isEqualTo("08:15");
+        assertThat(moved.getStopOrder()).isEqualTo(3);
+        verify(routeStopRepository).save(moved);
+    }
+
+    @Test
+    void pickupTimeOnlyCountsThePositionWithoutLoadingTheRoute() {
+        RouteStop rs = stop(7, 2048);
+        when(routeStopRepository.findById(7L)).thenReturn(Optional.of(rs));
+        when(routeStopRepository.countBefore(ROUTE_ID, 2048, 7L)).thenReturn(1L);
+
+        RouteStop updated = service.updateRouteStop(7L, null, "09:00");
+
+        assertThat(updated.getPickupTime()).isEqualTo("09:00");
+        assertThat(updated.getStopOrder()).isEqualTo(2);
+        verify(routeRepository, never()).findWithLockById(any());
+    }
+
+    @Test
+    void unknownStopIsRejected() {
+        when(routeStopRepository.findRouteIdById(42L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> service.updateRouteStop(42L, 1, null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // Stops with ids 1..n in the given rank order
+    private List<RouteStop> stops(long... ranks) {
+        List<RouteStop> stops = new ArrayList<>();
+        for (int i = 0; i < ranks.length; i++) {
+            stops.add(stop(i + 1, ranks[i]));
+        }
+        return stops;
+    }
+
+    private RouteStop stop(long id, long rank) {
+        RouteStop rs = new RouteStop();
+        ReflectionTestUtils.setField(rs, "id", id);
+        rs.setRoute(route);
+        rs.setRank(rank);
+        return rs;
+    }
+
+    private void givenRoute(List<RouteStop> stops) {
+        for (RouteStop rs : stops) {
+            when(routeStopRepository.findRouteIdById(rs.getId())).thenReturn(Optional.of(ROUTE_ID));
+        }
+        when(routeStopRepository.findWithStopByRouteIdOrderByStopOrderAsc(ROUTE_ID)).thenReturn(stops);
+    }
+
+    private static List<Long> ranks(List<RouteStop> stops) {
+        return stops.stream().map(RouteStop::getRank).toList();
+    }
+}
@@ -0,0 +1,160 @@
+package com.bus.routing.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class TileCacheTest {
+
+    private static final int Z = 2;
+
+    // --- coveringTiles ---
+
+    @Test
+    void pointInTheMiddleOfATileIsCoveredByThatTileOnly() {
+        double lon = TileMath.xToLon(1.5, Z);
+        double lat = TileMath.yToLat(2.5, Z);
+
+        assertThat(TileCache.coveringTiles(Z, lat, lon, lat, lon)).containsExactly(1, 2, 1, 2);
+    }
+
+    @Test
+    void pointInsideTheBufferIsAlsoCoveredByTheNeighbour() {
+        double justBeforeEdge = 2 - TileMath.BUFFER / 2;
+        double justAfterEdge = 2 + TileMath.BUFFER / 2;
+        double lat = TileMath.yToLat(2.5, Z);
+
+        double lon = TileMath.xToLon(justBeforeEdge, Z);
+        assertThat(TileCache.coveringTiles(Z, lat, lon, lat, lon)).containsExactly(1, 2, 2, 2);
+
+        lon = TileMath.xToLon(justAfterEdge, Z);
+        assertThat(TileCache.coveringTiles(Z, lat, lon, lat, lon)).containsExactly(1, 2, 2, 2);
+    }
+
+    @Test
+    void pointJustOutsideTheBufferIsNotCoveredByTheNeighbour() {
+        double lon = TileMath.xToLon(2 - 2 * TileMath.BUFFER, Z);
+        double lat = TileMath.yToLat(2.5, Z);
+
+        assertThat(TileCache.coveringTiles(Z, lat, lon, lat, lon)).containsExactly(1, 2, 1, 2);
+    }
+
+    @Test
+    void bufferAboveAndBelowFollowsTileRows() {
+        double lon = TileMath.xToLon(1.5, Z);
+        double lat = TileMath.yToLat(2 - TileMath.BUFFER / 2, Z); // just north of the row 1/2 edge
+
+        assertThat(TileCache.coveringTiles(Z, lat, lon, lat, lon)).containsExactly(1, 1, 1, 2);
+    }
+
+    @Test
+    void coverageIsClampedToTheWorld() {
+        assertThat(TileCache.coveringTiles(0, -80, -170, 80, 170)).containsExactly(0, 0, 0, 0);
+        assertThat(TileCache.coveringTiles(Z, -89, -180, 89, 180)).containsExactly(0, 0, 3, 3);
+    }
+
+    // --- put / get ---
+
+    @Test
+    void leastRecentlyUsedTilesAreEvictedByBytes() {
+        TileCache cache = new TileCache(10);
+        cache.put(1, tile(4), 0);
+        cache.put(2, tile(4), 0);
+        cache.get(1); // 2 is now the oldest
+
+        cache.put(3, tile(4), 0);
+
+        assertThat(cache.get(1)).isNotNull();
+        assertThat(cache.get(2)).isNull();
+        assertThat(cache.get(3)).isNotNull();
+    }
+
+    @Test
+    void replacingATileCountsOnlyTheNewBytes() {
+        TileCache cache = new TileCache(10);
+        cache.put(1, tile(4), 0);
+        cache.put(1, tile(4), 0);
+        cache.put(2, tile(6), 0);
+
+        assertThat(cache.get(1)).isNotNull();
+        assertThat(cache.get(2)).isNotNull();
+    }
+
+    @Test
+    void tileLargerThanTheCacheIsNotKept() {
+        TileCache cache = new TileCache(10);
+        cache.put(1, tile(4), 0);
+        cache.put(2, tile(11), 0);
+
+        assertThat(cache.get(1)).isNotNull();
+        assertThat(cache.get(2)).isNull();
+    }
+
+    @Test
+    void tileRenderedBeforeAnInvalidationIsRefused() {
+        TileCache cache = new TileCache(10);
+        long renderedAt = cache.generation();
+
+        cache.invalidatePoint(0, 0);
+        cache.put(1, tile(4), renderedAt);
+
+        assertThat(cache.get(1)).isNull();
+
+        cache.put(1, tile(4), cache.generation());
+        assertThat(cache.get(1)).isNotNull();
+    }
+
+    // --- invalidate ---
+
+    @Test
+    void invalidateDropsOnlyTilesCoveringTheBox() {
+        TileCache cache = new TileCache(100);
+        long covered = keyAt(10, 48.8566, 2.3522);
+        long elsewhere = keyAt(10, -33.8688, 151.2093);
+        cache.put(covered, tile(4), 0);
+        cache.put(elsewhere, tile(4), 0);
+
+        cache.invalidatePoint(48.8566, 2.3522);
+
+        assertThat(cache.get(covered)).isNull();
+        assertThat(cache.get(elsewhere)).isNotNull();
+    }
+
+    @Test
+    void invalidatingAWideBoxScansTheCachedTiles() {
+        TileCache cache = new TileCache(100);
+        long paris = keyAt(14, 48.8566, 2.3522);
+        long sydney = keyAt(14, -33.8688, 151.2093);
+        cache.put(paris, tile(4), 0);
+        cache.put(sydney, tile(4), 0);
+
+        // far more tiles cover Europe at zoom 14 than are cached, so the cache is scanned
+        cache.invalidate(35, -10, 60, 30);
+
+        assertThat(cache.get(paris)).isNull();
+        assertThat(cache.get(sydney)).isNotNull();
+    }
+
+    @Test
+    void evictedTilesGiveBackTheirBytes() {
+        TileCache cache = new TileCache(8);
+        long paris = keyAt(10, 48.8566, 2.3522);
+        long sydney = keyAt(10, -33.8688, 151.2093);
+        cache.put(paris, tile(4), 0);
+        cache.put(sydney, tile(4), 0);
+
+        cache.invalidatePoint(48.8566, 2.3522);
+        cache.put(paris, tile(4), cache.generation());
+
+        assertThat(cache.get(sydney)).isNotNull();
+        assertThat(cache.get(paris)).isNotNull();
+    }
+
+    private static TileCache.Tile tile(int size) {
+        return new TileCache.Tile(new byte[size], "etag");
+    }
+
+    private static long keyAt(int z, double lat, double lon) {
+        return TileMath.key(z, (int) TileMath.lonToX(lon, z), (int) TileMath.latToY(lat, z));
+    }
+}
@@ -0,0 +1,45 @@
+package com.bus.routing.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import org.junit.jupiter.api.Test;
+
+class TileMathTest {
+
+    @Test
+    void keyRoundTrips() {
+        int last = (1 << TileMath.MAX_ZOOM) - 1;
+        int[][] tiles = { { 0, 0, 0 }, { 1, 1, 0 }, { 12, 2047, 1361 }, { TileMath.MAX_ZOOM, last, last } };
+
+        for (int[] t : tiles) {
+            long key = TileMath.key(t[0], t[1], t[2]);
+            assertThat(TileMath.zoomOf(key)).isEqualTo(t[0]);
+            assertThat(TileMath.xOf(key)).isEqualTo(t[1]);
+            assertThat(TileMath.yOf(key)).isEqualTo(t[2]);
+        }
+    }
+
+    @Test
+    void keysDifferAcrossZoomLevels() {
+        assertThat(TileMath.key(1, 0, 0)).isNotEqualTo(TileMath.key(0, 0, 0));
+        assertThat(TileMath.key(2, 1, 0)).isNotEqualTo(TileMath.key(2, 0, 1));
+    }
+
+    @Test
+    void tileCoordinatesRoundTrip() {
+        assertThat(TileMath.xToLon(TileMath.lonToX(-122.4194, 12), 12)).isCloseTo(-122.4194, within(1e-9));
+        assertThat(TileMath.yToLat(TileMath.latToY(37.7749, 12), 12)).isCloseTo(37.7749, within(1e-9));
+        assertThat(TileMath.lonToX(0, 1)).isEqualTo(1.0);
+        assertThat(TileMath.latToY(0, 1)).isCloseTo(1.0, within(1e-9));
+    }
+
+    @Test
+    void onlyTilesInsideTheZoomAreValid() {
+        assertThat(TileMath.isValid(0, 0, 0)).isTrue();
+        assertThat(TileMath.isValid(2, 3, 3)).isTrue();
+        assertThat(TileMath.isValid(2, 4, 0)).isFalse();
+        assertThat(TileMath.isValid(-1, 0, 0)).isFalse();
+        assertThat(TileMath.isValid(TileMath.MAX_ZOOM + 1, 0, 0)).isFalse();
+    }
+}
@@ -0,0 +1,63 @@
+package com.bus.routing.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class VectorTileServiceTest {
+
+    private static final double MIN = 0;
+    private static final double MAX = 4096;
+
+    @Test
+    void lineInsideTheTileIsKeptWhole() {
+        List<int[]> parts = clip(100, 100, 200, 200, 300, 100);
+
+        assertThat(parts).hasSize(1);
+        assertThat(parts.get(0)).containsExactly(100, 100, 200, 200, 300, 100);
+    }
+
+    @Test
+    void lineCrossingTheTileIsCutAtBothEdges() {
+        List<int[]> parts = clip(-1000, 50, 5000, 50);
+
+        assertThat(parts).hasSize(1);
+        assertThat(parts.get(0)).containsExactly(0, 50, 4096, 50);
+    }
+
+    @Test
+    void lineThatLeavesAndComesBackGivesTwoParts() {
+        List<int[]> parts = clip(100, 100, 5000, 100, 5000, 200, 100, 200);
+
+        assertThat(parts).hasSize(2);
+        assertThat(parts.get(0)).containsExactly(100, 100, 4096, 100);
+        assertThat(parts.get(1)).containsExactly(4096, 200, 100, 200);
+    }
+
+    @Test
+    void diagonalIsCutWhereItMeetsTheEdge() {
+        List<int[]> parts = clip(-100, -100, 100, 100);
+
+        assertThat(parts).hasSize(1);
+        assertThat(parts.get(0)).containsExactly(0, 0, 100, 100);
+    }
+
+    @Test
+    void lineOutsideTheTileIsDropped() {
+        assertThat(clip(-500, -500, -100, -500, -100, 5000)).isEmpty();
+        assertThat(clip(5000, 100, 6000, 200)).isEmpty();
+    }
+
+    // x0, y0, x1, y1, ... clipped to [MIN, MAX]
+    private static List<int[]> clip(double... coords) {
+        double[] xs = new double[coords.length / 2];
+        double[] ys = new double[coords.length / 2];
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = coords[2 * i];
+            ys[i] = coords[2 * i + 1];
+        }
+        return VectorTileService.clip(xs, ys, MIN, MAX);
+    }
+}